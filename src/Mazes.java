@@ -1,4 +1,6 @@
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
 
 import javalib.worldimages.*;
 
@@ -11,725 +13,2623 @@ import javalib.impworld.*;
 interface ITile {
   static final Color TILE_COLOR = Color.LIGHT_GRAY;
   static final Color WALL_COLOR = Color.DARK_GRAY;
+  static final Color START_COLOR = new Color(31, 128, 70);
+  static final Color EXIT_COLOR = new Color(106, 34, 128);
+  static final Color VISITING_COLOR = new Color(61, 118, 204);
+  static final Color VISITED_COLOR = new Color(145, 184, 242);
 }
 
-//represents an abstract Tile in a maze
+//the colors heats are drawn in: 256 levels from red, at the tile heats are measured from, to
+//blue, at the farthest tile. Every tile shares them, so assigning and drawing heats allocates
+//no colors
+class HeatGradient {
+  static final int LEVELS = 256;
+  private static final Color[] COLORS = new Color[LEVELS];
+
+  static {
+    //blends each level from red to blue
+    for (int level = 0; level < LEVELS; level++) {
+      COLORS[level] = new Color(LEVELS - 1 - level, 0, level);
+    }
+  }
+
+  //returns the color of the given level
+  static Color color(int level) {
+    return COLORS[level];
+  }
+
+  //returns the level of the given heat out of the given greatest heat, which is 0 if every heat
+  //is
+  static int level(int heat, int maxHeat) {
+    return maxHeat == 0 ? 0 : (LEVELS - 1) * heat / maxHeat;
+  }
+}
+
+//represents an abstract Tile in a maze. A tile only holds what is needed to draw it; its walls
+//and neighbors live in the WallGrid it is backed by, and whether it has been visited lives in
+//the VisitState it shares with the rest of its maze
 abstract class ATile implements ITile {
   //All fields are protected for use in render methods of subclasses
   protected final Color tileColor;
-  //Not final because heatColor changes depending on whether it is measured from the start or end
-  protected Color heatColor;
-  //Not final because all tiles start out neither visited nor visiting, and update to true as 
-  //the user or search algorithm process them
-  protected boolean visited;
-  protected boolean visiting;
-
-  // Creates a tile of the given color
-  ATile(Color tileColor) {
+  //the level of this tile's color in the HeatGradient. Not final because it changes depending on
+  //whether heat is measured from the start, the end or another tile
+  protected int heatLevel;
+  //the walls this tile is backed by, and the dense row-major index of this tile within them
+  protected final WallGrid walls;
+  protected final int index;
+  //whether this tile is visited or visiting, shared by every tile of its maze
+  protected final VisitState visits;
+
+  // Creates a tile of the given color at the given index of the given walls, keeping its visits
+  // in the given VisitState
+  ATile(WallGrid walls, VisitState visits, int index, Color tileColor) {
     this.tileColor = tileColor;
-    this.visiting = false;
-    this.visited = false;
+    this.walls = walls;
+    this.visits = visits;
+    this.index = index;
+  }
+
+  // Sets the heat of this tile to the given level of the HeatGradient
+  void setHeat(int level) {
+    if (level < 0 || level >= HeatGradient.LEVELS) {
+      throw new IllegalArgumentException("Not a heat level: " + level);
+    }
+    this.heatLevel = level;
+  }
+
+  //marks this ATile as visiting, to show that it is currently being processed.
+  void moveTo() {
+    this.visits.moveTo(this.index);
+  }
+
+  //marks this ATile as visited and no longer visiting, to show that it has been processed.
+  void moveFrom() {
+    this.visits.moveFrom(this.index);
+  }
+
+  //Marks this tile as neither visiting nor visited
+  void resetVistStatus() {
+    this.visits.forget(this.index);
   }
 
-  // Creates a tile with the default tile color
-  ATile() {
-    this.tileColor = ITile.TILE_COLOR;
+  // Returns the directions this tile can be left in, as described in WallGrid.openDirections
+  int openDirections() {
+    return this.walls.openDirections(this.index);
   }
 
-  // Sets the heat color to the given color
-  void setHeat(Color color) {
-    this.heatColor = color;
+  // Determines if this tile is currently being processed
+  boolean visiting() {
+    return this.visits.visiting(this.index);
   }
 
-  //finds the deepest Tile representative of this ATile
-  ATile findRep(HashMap<ATile, ATile> reps) {
-    ATile rep = reps.get(this);
-    if (rep.equals(this)) {
-      return rep;
+  // Determines if this tile has been processed
+  boolean visited() {
+    return this.visits.visited(this.index);
+  }
+
+  // Returns the color this tile is drawn in, given by:
+  // visiting > visited (if showVisited) > heat (if heatMode) > tileColor
+  protected Color renderColor(boolean heatMode, boolean showVisited) {
+    if (this.visiting()) {
+      return ITile.VISITING_COLOR;
+    } else if (this.visited() && showVisited) {
+      return ITile.VISITED_COLOR;
+    } else if (heatMode) {
+      return HeatGradient.color(this.heatLevel);
     } else {
-      return rep.findRep(reps);
+      return this.tileColor;
     }
   }
 
-  //breaks the wall between this ATile and other ATile
-  abstract void breakTile(ATile other);
+  // Paints this tile into the given raster with the sprite of its walls from the given atlas,
+  // centered on the given position, with the color given by:
+  // visiting > visited (if showVisited) > heat (if heatMode) > tileColor
+  void paint(ComputedPixelImage raster, ASpriteAtlas atlas, double centerX, double centerY,
+             boolean heatMode, boolean showVisited) {
+    atlas.blit(raster, (int) Math.round(centerX), (int) Math.round(centerY),
+            this.openDirections(), this.renderColor(heatMode, showVisited));
+  }
 
-  //breaks the wall between this ATile and other RectTile
-  protected void breakRect(RectTile other) {
-    throw new IllegalArgumentException("Incompatible tile types.");
+  // Checks if this tile does not have a wall in the direction of the given key
+  boolean canMove(String direction) {
+    int dir = this.walls.directionOf(direction);
+    if (dir == -1) {
+      throw new IllegalArgumentException("Invalid direction: " + direction);
+    }
+    return this.walls.canMove(this.index, dir);
   }
+}
 
-  //breaks the wall between this ATile and other HexTile
-  protected void breakHex(HexTile other) {
-    throw new IllegalArgumentException("Incompatible tile types.");
+//holds whether each tile of a maze is visiting, visited or seen by a search, as the epoch it
+//happened in. Only marks from the current epoch count, so every tile is reset at once by
+//starting a new epoch instead of clearing each one
+class VisitState {
+  private final int[] visitingIn;
+  private final int[] visitedIn;
+  private final int[] seenIn;
+  //starts at 1, as every mark starts out as 0
+  private int epoch;
+
+  // Creates a VisitState for the given number of tiles, none of them marked
+  VisitState(int size) {
+    this.visitingIn = new int[size];
+    this.visitedIn = new int[size];
+    this.seenIn = new int[size];
+    this.epoch = 1;
   }
 
-  //mutates this ATile's visiting field to true, to show that it is currently being processed.
-  void moveTo() {
-    this.visiting = true;
+  //determines if the given tile is being processed
+  boolean visiting(int index) {
+    return this.visitingIn[index] == this.epoch;
   }
 
-  //mutates this ATile's visiting field to false, and visited field to true,
-  //to show that it has been processed.
-  void moveFrom() {
-    this.visiting = false;
-    this.visited = true;
+  //determines if the given tile has been processed
+  boolean visited(int index) {
+    return this.visitedIn[index] == this.epoch;
   }
 
-  //Sets both the visiting and visited fields of this tile to false
-  void resetVistStatus() {
-    this.visited = false;
-    this.visiting = false;
+  //determines if the given tile has been seen by a search
+  boolean seen(int index) {
+    return this.seenIn[index] == this.epoch;
   }
 
-  // Renders this tile in the given size, with the color given by:
-  // visiting > visited (if showVisited) > heatColor (if heatMode) > tileColor
-  abstract WorldImage render(int tileSize, boolean heatMode, boolean showVisited);
+  //marks the given tile as being processed
+  void moveTo(int index) {
+    this.visitingIn[index] = this.epoch;
+  }
 
-  // Checks if this tile does not have a wall in the given direction
-  abstract boolean canMove(String direction);
+  //marks the given tile as processed and no longer being processed
+  void moveFrom(int index) {
+    this.visitingIn[index] = 0;
+    this.visitedIn[index] = this.epoch;
+  }
 
-  // Returns an ArrayList<ATile> containing this tile's neighbors that are not separated by a wall
-  abstract ArrayList<ATile> accessibleNeighbors();
+  //marks the given tile as seen by a search
+  void see(int index) {
+    this.seenIn[index] = this.epoch;
+  }
 
-  // Assigns this tile's neighbors to be the neighboring indices of the given grid,
-  // at the given position
-  abstract void assignNeighbors(ArrayList<ArrayList<ATile>> grid, int rowPos, int colPos);
+  //unmarks the given tile
+  void forget(int index) {
+    this.visitingIn[index] = 0;
+    this.visitedIn[index] = 0;
+    this.seenIn[index] = 0;
+  }
 
-  // Appends half of this tile's neighbors as edges to the given ArrayList, width the edges created
-  // in accordance with the given bias. The edges created represent the lower and right neighbors
-  // of this tile
-  abstract void appendHalfEdges(ArrayList<Edge> edges, boolean vertBias, boolean horzBias);
+  //unmarks every tile by starting a new epoch, in constant time except when the epochs run out
+  void reset() {
+    if (this.epoch == Integer.MAX_VALUE) {
+      //old marks would come back into the current epoch, so they are cleared for real
+      Arrays.fill(this.visitingIn, 0);
+      Arrays.fill(this.visitedIn, 0);
+      Arrays.fill(this.seenIn, 0);
+      this.epoch = 0;
+    }
+    this.epoch++;
+  }
 }
 
 // Represents a tile in a Rectangular maze
 class RectTile extends ATile {
-  //these fields are not final because we need to break them when making the maze
-  private boolean upWall;
-  private boolean downWall;
-  private boolean rightWall;
-  private boolean leftWall;
-
-  //Not final because these fields are cyclic and therefore need mutation
-  private ATile up;
-  private ATile down;
-  private ATile right;
-  private ATile left;
-
-  // Creates a RectTile with the given walls, neighbors, and color
-  RectTile(boolean upWall, boolean downWall, boolean rightWall, boolean leftWall,
-           RectTile up, RectTile down, RectTile right, RectTile left, Color tileColor) {
-    super(tileColor);
-    this.upWall = upWall;
-    this.downWall = downWall;
-    this.rightWall = rightWall;
-    this.leftWall = leftWall;
-    this.up = up;
-    up.setDown(this);
-    this.down = down;
-    down.setUp(this);
-    this.right = right;
-    right.setLeft(this);
-    this.left = left;
-    left.setRight(this);
-  }
-
-  //Creates a RectTile witht the given walls and color, and the neighbors set to null
-  RectTile(boolean upWall, boolean downWall, boolean rightWall, boolean leftWall, Color tileColor) {
-    super(tileColor);
-    this.upWall = upWall;
-    this.downWall = downWall;
-    this.rightWall = rightWall;
-    this.leftWall = leftWall;
-    this.up = null;
-    this.down = null;
-    this.right = null;
-    this.left = null;
-  }
-
-  // Creates a RectTile of the given color, with all walls set to true and neighbors set to null
-  RectTile(Color tileColor) {
-    this(true, true, true, true, tileColor);
-  }
-
-  // Creates a RectTile of the default color, with all walls set to true and neighbors set to null
-  RectTile() {
-    this(true, true, true, true, ITile.TILE_COLOR);
-  }
-
-  //sets this RectTile's up field to ATile up
-  void setUp(ATile up) {
-    this.up = up;
-  }
-
-  //sets this RectTile's down field to ATile down
-  void setDown(ATile down) {
-    this.down = down;
-  }
-
-  //sets this RectTile's right field to ATile right
-  void setRight(ATile right) {
-    this.right = right;
-  }
-
-  //sets this RectTile's left field to ATile left
-  void setLeft(ATile left) {
-    this.left = left;
-  }
-
-  //renders this RectTile as a square of the given size, with the color given by:
-  // visiting > visited (if showVisited) > heatColor (if heatMode) > tileColor
-  WorldImage render(int size, boolean heatMode, boolean showVisited) {
-    Color renderColor;
-    if (this.visiting) {
-      renderColor = new Color(61, 118, 204);
-    } else if (this.visited && showVisited) {
-      renderColor = new Color(145, 184, 242);
-    } else if (heatMode) {
-      renderColor = this.heatColor;
-    } else {
-      renderColor = this.tileColor;
-    }
-    WorldImage walls = new RectangleImage(size, size, "solid", ITile.WALL_COLOR);
-    WorldImage innerTile = new RectangleImage(size - 2, size - 2, "solid", renderColor);
-    WorldImage tile = new OverlayImage(innerTile, walls);
-    if (!this.upWall) {
-      tile = new OverlayOffsetImage(innerTile, 0, 1, tile);
-    }
-    if (!this.downWall) {
-      tile = new OverlayOffsetImage(innerTile, 0, -1, tile);
-    }
-    if (!this.rightWall) {
-      tile = new OverlayOffsetImage(innerTile, -1, 0, tile);
+
+  // Creates a RectTile of the given color at the given index of the given walls, keeping its
+  // visits in the given VisitState
+  RectTile(WallGrid walls, VisitState visits, int index, Color tileColor) {
+    super(walls, visits, index, tileColor);
+  }
+}
+
+//represents a tile in a Hexagonal maze
+class HexTile extends ATile {
+
+  // Creates a HexTile of the given color at the given index of the given walls, keeping its
+  // visits in the given VisitState
+  HexTile(WallGrid walls, VisitState visits, int index, Color tileColor) {
+    super(walls, visits, index, tileColor);
+  }
+}
+
+//pre-rasterized tiles of one size, one sprite for each set of open sides, so painting a tile is
+//copying rows of its pixels in the wall or fill color without any geometry. Each sprite is made
+//the first time it is needed, and is the same whatever color its tile is filled with
+abstract class ASpriteAtlas {
+  //a side no tile ever opens, so the pixels of its wall are always wall
+  static final int ALWAYS_WALL = 1 << 6;
+
+  //the distance between the centers of neighboring tiles in a row, and between rows
+  private final int tileWidth;
+  private final int rowHeight;
+  //the offsets from the center of every pixel of a tile in row-major order, and the sides whose
+  //walls each pixel is part of, as a mask of directions
+  private final int[] offsetX;
+  private final int[] offsetY;
+  private final int[] sides;
+  //the sprites made so far, by open sides. Each is a list of runs of pixels along a row that
+  //are all wall or all fill, as four ints: the row's offset from the center, the offset of the
+  //run's first pixel, its length, and 1 if it is wall or 0 if it is fill
+  private final int[][] sprites;
+
+  // Creates an ASpriteAtlas of tiles the given width apart in a row and the given height
+  // between rows, with sides in the given number of directions, whose pixels are at the
+  // offsets from the center in pixels[0] and pixels[1] and part of the walls of the sides in
+  // pixels[2]
+  ASpriteAtlas(int tileWidth, int rowHeight, int directions, int[][] pixels) {
+    this.tileWidth = tileWidth;
+    this.rowHeight = rowHeight;
+    this.offsetX = pixels[0];
+    this.offsetY = pixels[1];
+    this.sides = pixels[2];
+    this.sprites = new int[1 << directions][];
+  }
+
+  //returns the given size, if tiles can be drawn in it, so subclasses can check it before
+  //rasterizing their tiles
+  static int checkSize(int tileSize) {
+    if (tileSize < 1) {
+      throw new IllegalArgumentException("Tile size must be positive");
     }
-    if (!this.leftWall) {
-      tile = new OverlayOffsetImage(innerTile, 1, 0, tile);
+    return tileSize;
+  }
+
+  //returns the distance between the centers of neighboring tiles in a row
+  int tileWidth() {
+    return this.tileWidth;
+  }
+
+  //returns the distance between the centers of neighboring rows
+  int rowHeight() {
+    return this.rowHeight;
+  }
+
+  //returns how many pixels a tile covers
+  int pixels() {
+    return this.offsetX.length;
+  }
+
+  //returns the sprite of a tile with the given open sides, making it the first time it is
+  //needed. Pixels in the wall of a closed side are wall
+  int[] sprite(int open) {
+    if (this.sprites[open] == null) {
+      IntDeque runs = new IntDeque();
+      int start = 0;
+      //ends a run before every pixel that does not continue it along the row
+      for (int i = 1; i <= this.sides.length; i++) {
+        boolean wall = (this.sides[start] & ~open) != 0;
+        if (i == this.sides.length || this.offsetY[i] != this.offsetY[start]
+                || this.offsetX[i] != this.offsetX[start] + i - start
+                || (this.sides[i] & ~open) != 0 != wall) {
+          runs.addLast(this.offsetY[start]);
+          runs.addLast(this.offsetX[start]);
+          runs.addLast(i - start);
+          runs.addLast(wall ? 1 : 0);
+          start = i;
+        }
+      }
+      this.sprites[open] = runs.toArray();
     }
-    return tile;
+    return this.sprites[open];
   }
 
-  //finds where a neighbor RectTile is in relation to this RectTile
-  private String getDirection(RectTile neighbor) {
-    if (neighbor.equals(this.up)) {
-      return "up";
-    } else if (neighbor.equals(this.down)) {
-      return "down";
-    } else if (neighbor.equals(this.right)) {
-      return "right";
-    } else if (neighbor.equals(this.left)) {
-      return "left";
-    } else {
-      throw new IllegalArgumentException("Tile is not a neighbor");
+  //copies the sprite of a tile with the given open sides into the given raster in the given
+  //fill color, centered on the given pixel, leaving out the pixels past its edges
+  void blit(ComputedPixelImage raster, int centerX, int centerY, int open, Color fill) {
+    int[] sprite = this.sprite(open);
+    int width = (int) raster.getWidth();
+    int height = (int) raster.getHeight();
+    //copies each run that lands on a row of the raster, cut to the raster's width
+    for (int i = 0; i < sprite.length; i += 4) {
+      int y = centerY + sprite[i];
+      if (y >= 0 && y < height) {
+        Color color = sprite[i + 3] == 1 ? ITile.WALL_COLOR : fill;
+        int end = Math.min(width, centerX + sprite[i + 1] + sprite[i + 2]);
+        for (int x = Math.max(0, centerX + sprite[i + 1]); x < end; x++) {
+          raster.setPixel(x, y, color);
+        }
+      }
     }
   }
+}
+
+//pre-rasterized RectTiles of one size: squares the size of a tile, with a wall one pixel thick
+//on each closed side. The corners are always wall
+class RectSpriteAtlas extends ASpriteAtlas {
 
-  //breaks this RectTile and other ATile's walls between
-  void breakTile(ATile other) {
-    other.breakRect(this);
+  // Creates the RectSpriteAtlas for tiles of the given size
+  RectSpriteAtlas(int tileSize) {
+    super(checkSize(tileSize), tileSize, 4, pixels(tileSize));
   }
 
-  //breaks the wall between this and that RectTile
-  protected void breakRect(RectTile that) {
-    String s = this.getDirection(that);
-    switch (s) {
-      case "up":
-        this.breakUp();
-        break;
-      case "down":
-        this.breakDown();
-        break;
-      case "right":
-        this.breakRight();
-        break;
-      case "left":
-        this.breakLeft();
-        break;
-      default:
-        throw new IllegalArgumentException("Invalid direction: " + s);
+  //returns the offsets and sides of the pixels of a square of the given size. A center that
+  //falls between pixels rounds up, so the square starts past half its size before it
+  private static int[][] pixels(int size) {
+    int[][] pixels = new int[3][size * size];
+    int first = -((size + 1) / 2);
+    //iterates through the pixels of the square, a row at a time
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        int i = y * size + x;
+        pixels[0][i] = first + x;
+        pixels[1][i] = first + y;
+        pixels[2][i] = ((x == 0 || x == size - 1) && (y == 0 || y == size - 1) ? ALWAYS_WALL : 0)
+                | (x == 0 ? 1 << RectWallGrid.LEFT : 0)
+                | (x == size - 1 ? 1 << RectWallGrid.RIGHT : 0)
+                | (y == 0 ? 1 << RectWallGrid.UP : 0)
+                | (y == size - 1 ? 1 << RectWallGrid.DOWN : 0);
+      }
     }
+    return pixels;
   }
+}
 
-  //sets this RectTile's up wall to false
-  private void breakUp() {
-    this.upWall = false;
+//pre-rasterized HexTiles of one size, standing on a point. Tiles sit on a lattice of whole
+//pixels, an even width apart so the rows in between are offset by whole pixels too, and every
+//tile covers the pixels closer to its center than to any other, so neighboring tiles fit
+//together without overlapping
+class HexSpriteAtlas extends ASpriteAtlas {
+  //how far, in pixels, a wall reaches into its tile from the side
+  static final double WALL_THICKNESS = Math.sqrt(3);
+
+  // Creates the HexSpriteAtlas for tiles whose corners are the given size from their centers
+  HexSpriteAtlas(int tileSize) {
+    super(tileWidthFor(checkSize(tileSize)), rowHeightFor(tileSize), 6, pixels(tileSize));
   }
 
-  //sets this RectTile's down wall to false
-  private void breakDown() {
-    this.downWall = false;
+  //returns the distance between the centers of neighboring tiles of the given size in a row,
+  //which is even
+  private static int tileWidthFor(int tileSize) {
+    return 2 * Math.max(1, (int) Math.round(Math.sqrt(3) * tileSize / 2));
   }
 
-  //sets this RectTile's right wall to false
-  private void breakRight() {
-    this.rightWall = false;
+  //returns the distance between the centers of neighboring rows of tiles of the given size
+  private static int rowHeightFor(int tileSize) {
+    return Math.max(1, (int) Math.round(1.5 * tileSize));
   }
 
-  //sets this RectTile's left wall to false
-  private void breakLeft() {
-    this.leftWall = false;
+  //returns the offsets and sides of the pixels of a tile of the given size
+  private static int[][] pixels(int tileSize) {
+    int tileWidth = tileWidthFor(tileSize);
+    int rowHeight = rowHeightFor(tileSize);
+    //the directions of a tile's half edges, and the centers of the neighbors on those sides
+    int[] halfEdges = {HexWallGrid.RIGHT, HexWallGrid.RIGHT_DOWN, HexWallGrid.LEFT_DOWN};
+    int[] neighborX = {tileWidth, tileWidth / 2, -tileWidth / 2};
+    int[] neighborY = {0, rowHeight, rowHeight};
+    int halfWidth = tileWidth / 2;
+    int halfHeight = rowHeight + halfWidth;
+    IntDeque xs = new IntDeque();
+    IntDeque ys = new IntDeque();
+    IntDeque masks = new IntDeque();
+    //keeps every pixel around the center whose own center is on this tile's side of the line
+    //halfway to each neighbor, counting only the line on one side of each pair of neighbors.
+    //Positions are doubled so pixel centers are whole, and the comparisons exact
+    for (int y = -halfHeight; y <= halfHeight; y++) {
+      for (int x = -halfWidth; x < halfWidth; x++) {
+        boolean inside = true;
+        int mask = 0;
+        for (int slot = 0; slot < 3 && inside; slot++) {
+          long squared = (long) neighborX[slot] * neighborX[slot]
+                  + (long) neighborY[slot] * neighborY[slot];
+          long along = (2L * x + 1) * neighborX[slot] + (2L * y + 1) * neighborY[slot];
+          double wall = 2 * WALL_THICKNESS * Math.sqrt(squared);
+          inside = -squared < along && along <= squared;
+          if (along > squared - wall) {
+            mask |= 1 << halfEdges[slot];
+          } else if (along < wall - squared) {
+            //the opposite side is half a turn away
+            mask |= 1 << (halfEdges[slot] + 3) % 6;
+          }
+        }
+        if (inside) {
+          xs.addLast(x);
+          ys.addLast(y);
+          masks.addLast(mask);
+        }
+      }
+    }
+    return new int[][] {xs.toArray(), ys.toArray(), masks.toArray()};
   }
+}
 
-  //determines if there is not a wall in the given direction from this RectTile
-  boolean canMove(String direction) {
-    switch (direction) {
-      case "w":
-      case "up":
-        return !this.upWall;
-      case "s":
-      case "down":
-        return !this.downWall;
-      case "d":
-      case "right":
-        return !this.rightWall;
-      case "a":
-      case "left":
-        return !this.leftWall;
-      default:
-        throw new IllegalArgumentException("Invalid direction: " + direction);
+//represents the walls of a maze as one bit per wall over dense row-major tile indices, with
+//neighbors derived arithmetically from the index instead of stored per tile.
+//Directions are numbered counterclockwise starting from the left, so rotating is adding or
+//subtracting one and the opposite direction is half a turn away. Each tile owns the bits of its
+//"half edges" (see halfEdgeDirection), and the other walls belong to the neighbor on that side
+abstract class WallGrid {
+  //the row-major index of the first tile of each row, plus the total size at the end
+  private final int[] rowStart;
+  //a set bit is a broken wall
+  private final long[] openWalls;
+  //how many walls have been broken, so anything computed from the walls can tell it is stale
+  private int changes;
+
+  // Creates a WallGrid with every wall intact, with rows of the widths given by the TileUtils
+  WallGrid(TileUtils utils, int height, int firstRowWidth) {
+    if (height < 1 || firstRowWidth < 1) {
+      throw new IllegalArgumentException("A maze needs at least one tile");
+    }
+    this.rowStart = new int[height + 1];
+    long size = 0;
+    //iterates through the rows, accumulating their starting indices
+    for (int row = 0; row < height; row++) {
+      this.rowStart[row] = (int) size;
+      size += utils.calculateWidth(row, firstRowWidth);
+      if (size > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Too many tiles: " + size);
+      }
     }
+    this.rowStart[height] = (int) size;
+    this.openWalls = new long[(int) ((size * this.halfEdges() + 63) / 64)];
   }
 
-  //finds all the neighboring tiles that are not separated by a wall
-  ArrayList<ATile> accessibleNeighbors() {
-    ArrayList<ATile> neighbors = new ArrayList<ATile>();
-    if (!this.leftWall && this.left != null) {
-      neighbors.add(this.left);
-    }
-    if (!this.upWall && this.up != null) {
-      neighbors.add(this.up);
+  //returns the number of tiles in this WallGrid
+  int size() {
+    return this.rowStart[this.rows()];
+  }
+
+  //returns the number of rows in this WallGrid
+  int rows() {
+    return this.rowStart.length - 1;
+  }
+
+  //returns the number of tiles in the given row
+  int rowWidth(int row) {
+    return this.rowStart[row + 1] - this.rowStart[row];
+  }
+
+  //returns the index of the tile at the given row and column
+  int indexOf(int row, int col) {
+    return this.rowStart[row] + col;
+  }
+
+  //returns the row of the tile at the given index
+  int rowOf(int index) {
+    int row = Arrays.binarySearch(this.rowStart, index);
+    //a miss returns -(insertion point) - 1, and the tile is in the row before the insertion point.
+    //Row starts never repeat, since every row has a tile
+    if (row < 0) {
+      row = -row - 2;
     }
-    if (!this.downWall && this.down != null) {
-      neighbors.add(this.down);
+    return row;
+  }
+
+  //returns the column of the tile at the given index
+  int colOf(int index) {
+    return index - this.rowStart[this.rowOf(index)];
+  }
+
+  //returns how many directions a tile in this WallGrid can have neighbors in
+  abstract int directions();
+
+  //returns every direction in the order the dfs and bfs ticks list a tile's neighbors in, the
+  //order the tiles listed them in before they were backed by a WallGrid. Never modified
+  abstract int[] searchOrder();
+
+  //returns how many half edges each tile owns
+  abstract int halfEdges();
+
+  //returns the direction of the given half edge of a tile. Slot 0 is always the right neighbor
+  abstract int halfEdgeDirection(int slot);
+
+  //returns the index of the neighbor of the given tile in the given direction, or -1 if the
+  //tile is on the edge of the maze in that direction
+  abstract int neighbor(int index, int dir);
+
+  //returns a lower bound on the number of steps between the two given tiles, ignoring walls
+  abstract int distanceEstimate(int index1, int index2);
+
+  //returns the direction the given key moves in, or -1 if it does not move. Keys are read once
+  //per key event, so everything past the keyboard works with directions alone
+  abstract int directionOf(String key);
+
+  //returns the direction opposite the given one
+  int opposite(int dir) {
+    return (dir + this.directions() / 2) % this.directions();
+  }
+
+  //returns the position of the bit for the wall on the given side of the given tile, or -1 if
+  //the tile has no neighbor on that side
+  private long wallBit(int index, int dir) {
+    int neighbor = this.neighbor(index, dir);
+    if (neighbor == -1) {
+      return -1;
     }
-    if (!this.rightWall && this.right != null) {
-      neighbors.add(this.right);
+    //iterates through the half edges, looking for the one in this direction or the opposite
+    for (int slot = 0; slot < this.halfEdges(); slot++) {
+      int slotDir = this.halfEdgeDirection(slot);
+      if (slotDir == dir) {
+        return (long) index * this.halfEdges() + slot;
+      } else if (slotDir == this.opposite(dir)) {
+        return (long) neighbor * this.halfEdges() + slot;
+      }
     }
-    return neighbors;
+    throw new IllegalStateException("No half edge for direction: " + dir);
   }
 
-  // Assigns this tile's neighbors to be the neighboring indices of the given grid,
-  // at the given position
-  void assignNeighbors(ArrayList<ArrayList<ATile>> grid, int rowPos, int colPos) {
-    if (rowPos != 0) {
-      this.setUp(grid.get(rowPos - 1).get(colPos));
-    }
-    if (rowPos != grid.size() - 1) {
-      this.setDown(grid.get(rowPos + 1).get(colPos));
+  //determines if there is a neighbor without a wall between it and the given tile
+  //in the given direction
+  boolean canMove(int index, int dir) {
+    long bit = this.wallBit(index, dir);
+    return bit != -1 && this.isOpen(bit);
+  }
+
+  //returns the directions the given tile can be left in as a mask, with bit dir set when there
+  //is no wall on that side. Walking the set bits visits the open neighbors without allocating:
+  //  for (int open = walls.openDirections(i); open != 0; open &= open - 1) {
+  //    int neighbor = walls.neighbor(i, Integer.numberOfTrailingZeros(open));
+  int openDirections(int index) {
+    int mask = 0;
+    //reads the walls this tile owns, and the ones its neighbors on the other sides own
+    for (int slot = 0; slot < this.halfEdges(); slot++) {
+      int dir = this.halfEdgeDirection(slot);
+      if (this.isOpen((long) index * this.halfEdges() + slot)) {
+        mask |= 1 << dir;
+      }
+      int owner = this.neighbor(index, this.opposite(dir));
+      if (owner != -1 && this.isOpen((long) owner * this.halfEdges() + slot)) {
+        mask |= 1 << this.opposite(dir);
+      }
     }
-    if (colPos != 0) {
-      this.setLeft(grid.get(rowPos).get(colPos - 1));
+    return mask;
+  }
+
+  //determines if the wall at the given bit has been broken
+  private boolean isOpen(long bit) {
+    return (this.openWalls[(int) (bit >>> 6)] & (1L << bit)) != 0;
+  }
+
+  //breaks the wall on the given side of the given tile
+  void breakWall(int index, int dir) {
+    long bit = this.wallBit(index, dir);
+    if (bit == -1) {
+      throw new IllegalArgumentException("No neighbor in direction: " + dir);
     }
-    if (colPos != grid.get(rowPos).size() - 1) {
-      this.setRight(grid.get(rowPos).get(colPos + 1));
+    if (!this.isOpen(bit)) {
+      this.openWalls[(int) (bit >>> 6)] |= 1L << bit;
+      this.changes++;
     }
   }
 
-  // Appends this tile's right and down neighbors as edges to the given ArrayList,
-  // with the edges created in accordance with the given bias.
-  void appendHalfEdges(ArrayList<Edge> edges, boolean vertBias, boolean horzBias) {
-    if (this.right != null) {
-      edges.add(new Edge(this, this.right, horzBias));
+  //returns how many walls of this WallGrid have been broken so far
+  int changes() {
+    return this.changes;
+  }
+
+  //breaks the wall represented by the given edge, packed as described in PackedEdges
+  void breakPackedEdge(long edge) {
+    int index = PackedEdges.tileIndex(edge);
+    this.breakWall(index, this.halfEdgeDirection(PackedEdges.slot(edge)));
+  }
+
+  //breaks the wall between the two given neighboring tiles
+  void breakEdge(int index1, int index2) {
+    //iterates through the directions, looking for the one that leads to index2
+    for (int dir = 0; dir < this.directions(); dir++) {
+      if (this.neighbor(index1, dir) == index2) {
+        this.breakWall(index1, dir);
+        return;
+      }
     }
-    if (this.down != null) {
-      edges.add(new Edge(this, this.down, vertBias));
+    throw new IllegalArgumentException("Tile is not a neighbor");
+  }
+
+  //returns the indices of the given tile's neighbors that are not separated from it by a wall,
+  //in counterclockwise order starting from the left. Allocates, so searches walk
+  //openDirections instead
+  ArrayList<Integer> accessibleNeighbors(int index) {
+    ArrayList<Integer> neighbors = new ArrayList<Integer>();
+    //iterates through the open directions
+    for (int open = this.openDirections(index); open != 0; open &= open - 1) {
+      neighbors.add(this.neighbor(index, Integer.numberOfTrailingZeros(open)));
     }
+    return neighbors;
   }
 }
 
-//represents a tile in a Hexagonal maze
-class HexTile extends ATile {
+//represents the walls of a Rectangle-shaped maze
+class RectWallGrid extends WallGrid {
+  static final int LEFT = 0;
+  static final int DOWN = 1;
+  static final int RIGHT = 2;
+  static final int UP = 3;
+  //the order RectTiles listed their neighbors in
+  private static final int[] SEARCH_ORDER = {LEFT, UP, DOWN, RIGHT};
 
-  //these fields are not final because they need to be broken for maze creation
-  private boolean leftWall;
-  private boolean rightWall;
-  private boolean rightUpWall;
-  private boolean rightDownWall;
-  private boolean leftUpWall;
-  private boolean leftDownWall;
-
-  //these fields are not final because this data is cyclic and needs to be mutated
-  private ATile left;
-  private ATile right;
-  private ATile rightUp;
-  private ATile rightDown;
-  private ATile leftUp;
-  private ATile leftDown;
-
-  // Creates a HexTile with the given walls, neighbors, and color
-  HexTile(boolean leftWall, boolean rightWall, boolean rightUpWall,
-          boolean rightDownWall, boolean leftUpWall, boolean leftDownWall,
-          HexTile left, HexTile right, HexTile rightUp, HexTile rightDown,
-          HexTile leftUp, HexTile leftDown, Color tileColor) {
-    super(tileColor);
-    this.leftWall = leftWall;
-    this.rightWall = rightWall;
-    this.rightUpWall = rightUpWall;
-    this.rightDownWall = rightDownWall;
-    this.leftUpWall = leftUpWall;
-    this.leftDownWall = leftDownWall;
-    this.left = left;
-    left.setRight(this);
-    this.right = right;
-    right.setLeft(this);
-    this.rightUp = rightUp;
-    rightUp.setLeftDown(this);
-    this.rightDown = rightDown;
-    rightDown.setLeftUp(this);
-    this.leftUp = leftUp;
-    leftUp.setRightDown(this);
-    this.leftDown = leftDown;
-    leftDown.setRightUp(this);
-  }
-
-  // Creates a HexTile with the given walls and color, and neighbors set to null
-  HexTile(boolean leftWall, boolean rightWall, boolean rightUpWall,
-          boolean rightDownWall, boolean leftUpWall, boolean leftDownWall, Color tileColor) {
-    super(tileColor);
-    this.leftWall = leftWall;
-    this.rightWall = rightWall;
-    this.rightUpWall = rightUpWall;
-    this.rightDownWall = rightDownWall;
-    this.leftUpWall = leftUpWall;
-    this.leftDownWall = leftDownWall;
-    this.left = null;
-    this.right = null;
-    this.rightUp = null;
-    this.rightDown = null;
-    this.leftUp = null;
-    this.leftDown = null;
-  }
-
-  // Creates a HexTile of the given color, with all walls set to true and neighbors set to null
-  HexTile(Color tileColor) {
-    this(true, true, true, true, true, true, tileColor);
-  }
-
-  // Creates a HexTile of the default color, with all walls set to true and neighbors set to null
-  HexTile() {
-    this(true, true, true, true, true, true, ITile.TILE_COLOR);
-  }
-
-  //sets this HexTile's left neighbor
-  void setLeft(ATile left) {
-    this.left = left;
-  }
-
-  //sets this HexTile's right neighbor
-  void setRight(ATile right) {
-    this.right = right;
-  }
-
-  //sets this HexTile's rightUp neighbor
-  void setRightUp(ATile rightUp) {
-    this.rightUp = rightUp;
-  }
-
-  //sets this HexTile's rightDown neighbor
-  void setRightDown(ATile rightDown) {
-    this.rightDown = rightDown;
-  }
-
-  //sets this HexTile's leftUp neighbor
-  void setLeftUp(ATile leftUp) {
-    this.leftUp = leftUp;
-  }
-
-  //sets this HexTile's leftDown neighbor
-  void setLeftDown(ATile leftDown) {
-    this.leftDown = leftDown;
-  }
-
-  //renders this RectTile as a hexagon of the given size, with the color given by:
-  // visiting > visited (if showVisited) > heatColor (if heatMode) > tileColor
-  WorldImage render(int sideLength, boolean heatMode, boolean showVisited) {
-    Color renderColor;
-    if (this.visiting) {
-      renderColor = new Color(61, 118, 204);
-    } else if (this.visited && showVisited) {
-      renderColor = new Color(145, 184, 242);
-    } else if (heatMode) {
-      renderColor = this.heatColor;
-    } else {
-      renderColor = this.tileColor;
-    }
-    WorldImage walls = new HexagonImage(sideLength, "solid", ITile.WALL_COLOR);
-    WorldImage innerTile = new HexagonImage(sideLength - 2, "solid", renderColor);
-    WorldImage tile = new RotateImage(new OverlayImage(innerTile, walls), 90);
-    WorldImage vertRect = new RectangleImage(sideLength - 4,
-            (int) ((sideLength - 2) * Math.sqrt(3)), "solid", renderColor);
-    WorldImage horzRect = new RotateImage(vertRect, 90);
-    WorldImage topLeft = new RotateImage(vertRect, -30);
-    WorldImage topRight = new RotateImage(vertRect, 30);
-    if (!this.rightWall) {
-      tile = new OverlayOffsetImage(horzRect, -2.5, 0, tile);
-    }
-    if (!this.leftWall) {
-      tile = new OverlayOffsetImage(horzRect, 2.5, 0, tile);
-    }
-    if (!this.rightUpWall) {
-      tile = new OverlayOffsetImage(topRight, 1.5 * Math.cos(Math.PI / 3) - 1,
-              1.5 * Math.sin(Math.PI / 3) + 0.5, tile);
-    }
-    if (!this.rightDownWall) {
-      tile = new OverlayOffsetImage(topLeft, 1.5 * Math.cos(Math.PI / 3) - 2,
-              -1.5 * Math.sin(Math.PI / 3) - 1, tile);
-    }
-    if (!this.leftUpWall) {
-      tile = new OverlayOffsetImage(topLeft, -1.5 * Math.cos(Math.PI / 3) + 0.5,
-              1.5 * Math.sin(Math.PI / 3) + 0.5, tile);
-    }
-    if (!this.leftDownWall) {
-      tile = new OverlayOffsetImage(topRight, -1.5 * Math.cos(Math.PI / 3) + 1.5,
-              -1.5 * Math.sin(Math.PI / 3) - 0.5, tile);
-    }
-    return tile;
-  }
-
-  //returns which direction a HexTile neighbor is with respect to this HexTile
-  private String getDirection(HexTile neighbor) {
-    if (neighbor.equals(this.left)) {
-      return "left";
-    } else if (neighbor.equals(this.right)) {
-      return "right";
-    } else if (neighbor.equals(this.rightUp)) {
-      return "rightUp";
-    } else if (neighbor.equals(this.rightDown)) {
-      return "rightDown";
-    } else if (neighbor.equals(this.leftUp)) {
-      return "leftUp";
-    } else if (neighbor.equals(this.leftDown)) {
-      return "leftDown";
-    } else {
-      throw new IllegalArgumentException("Tile is not a neighbor");
+  private final int width;
+  private final int height;
+
+  // Creates a RectWallGrid of the given dimensions with every wall intact
+  RectWallGrid(int width, int height) {
+    super(new RectUtils(), height, width);
+    this.width = width;
+    this.height = height;
+  }
+
+  //every row has the same width, so the row is a division away
+  int rowOf(int index) {
+    return index / this.width;
+  }
+
+  //every row has the same width, so the column is a remainder away
+  int colOf(int index) {
+    return index % this.width;
+  }
+
+  //RectTiles have four sides
+  int directions() {
+    return 4;
+  }
+
+  //left, up, down, then right
+  int[] searchOrder() {
+    return SEARCH_ORDER;
+  }
+
+  //RectTiles own their right and down walls
+  int halfEdges() {
+    return 2;
+  }
+
+  //slot 0 is the right wall and slot 1 the down wall
+  int halfEdgeDirection(int slot) {
+    switch (slot) {
+      case 0:
+        return RIGHT;
+      case 1:
+        return DOWN;
+      default:
+        throw new IllegalArgumentException("Invalid slot: " + slot);
     }
   }
 
-  //breaks the wall between this HexTile and that ATile
-  void breakTile(ATile other) {
-    other.breakHex(this);
+  //the Manhattan distance, as tiles only step along rows and columns
+  int distanceEstimate(int index1, int index2) {
+    return Math.abs(this.rowOf(index1) - this.rowOf(index2))
+            + Math.abs(this.colOf(index1) - this.colOf(index2));
   }
 
-  //breaks the wall between this HexTile and that HexTile
-  protected void breakHex(HexTile that) {
-    String s = this.getDirection(that);
-    switch (s) {
+  //moves with wasd, or with the names of the directions
+  int directionOf(String key) {
+    switch (key) {
+      case "a":
       case "left":
-        this.breakLeft();
-        break;
+        return LEFT;
+      case "s":
+      case "down":
+        return DOWN;
+      case "d":
       case "right":
-        this.breakRight();
-        break;
-      case "rightUp":
-        this.breakRightUp();
-        break;
-      case "rightDown":
-        this.breakRightDown();
-        break;
-      case "leftUp":
-        this.breakLeftUp();
-        break;
-      case "leftDown":
-        this.breakLeftDown();
-        break;
+        return RIGHT;
+      case "w":
+      case "up":
+        return UP;
+      default:
+        return -1;
+    }
+  }
+
+  //finds the neighbor one column or one row over, if it is inside the maze
+  int neighbor(int index, int dir) {
+    switch (dir) {
+      case LEFT:
+        return index % this.width != 0 ? index - 1 : -1;
+      case DOWN:
+        return index / this.width != this.height - 1 ? index + this.width : -1;
+      case RIGHT:
+        return index % this.width != this.width - 1 ? index + 1 : -1;
+      case UP:
+        return index / this.width != 0 ? index - this.width : -1;
       default:
-        throw new IllegalArgumentException("Invalid direction: " + s);
+        throw new IllegalArgumentException("Invalid direction: " + dir);
     }
   }
+}
+
+//represents the walls of a regular Hexagon-shaped maze. Rows grow by one tile until the middle
+//row and then shrink again, so the diagonal neighbors shift by a column depending on which half
+//of the maze a row is in
+class HexWallGrid extends WallGrid {
+  static final int LEFT = 0;
+  static final int LEFT_DOWN = 1;
+  static final int RIGHT_DOWN = 2;
+  static final int RIGHT = 3;
+  static final int RIGHT_UP = 4;
+  static final int LEFT_UP = 5;
+  //the order HexTiles listed their neighbors in
+  private static final int[] SEARCH_ORDER =
+          {RIGHT_UP, LEFT_UP, LEFT, LEFT_DOWN, RIGHT_DOWN, RIGHT};
+
+  private final int sideLength;
 
-  //sets this HexTile's left wall to false
-  private void breakLeft() {
-    this.leftWall = false;
+  // Creates a HexWallGrid of the given sideLength with every wall intact
+  HexWallGrid(int sideLength) {
+    super(new HexUtils(), sideLength * 2 - 1, sideLength);
+    this.sideLength = sideLength;
   }
 
-  //sets this HexTile's right wall to false
-  private void breakRight() {
-    this.rightWall = false;
+  //HexTiles have six sides
+  int directions() {
+    return 6;
   }
 
-  //sets this HexTile's right up wall to false
-  private void breakRightUp() {
-    this.rightUpWall = false;
+  //counterclockwise from the upper right
+  int[] searchOrder() {
+    return SEARCH_ORDER;
   }
 
-  //sets this HexTile's right down wall to false
-  private void breakRightDown() {
-    this.rightDownWall = false;
+  //HexTiles own their right, rightDown, and leftDown walls
+  int halfEdges() {
+    return 3;
   }
 
-  //sets this HexTile's left up wall to false
-  private void breakLeftUp() {
-    this.leftUpWall = false;
+  //slot 0 is the right wall, slot 1 the rightDown wall and slot 2 the leftDown wall
+  int halfEdgeDirection(int slot) {
+    switch (slot) {
+      case 0:
+        return RIGHT;
+      case 1:
+        return RIGHT_DOWN;
+      case 2:
+        return LEFT_DOWN;
+      default:
+        throw new IllegalArgumentException("Invalid slot: " + slot);
+    }
   }
 
-  //sets this HexTile's left down wall to false
-  private void breakLeftDown() {
-    this.leftDownWall = false;
+  //the hex distance in axial coordinates, where a tile's column is shifted back by its row in
+  //the top half of the maze, so every diagonal step changes only the row, or the row and the
+  //shifted column in opposite directions
+  int distanceEstimate(int index1, int index2) {
+    int dRow = this.rowOf(index2) - this.rowOf(index1);
+    int dCol = this.colOf(index2) - Math.min(this.rowOf(index2), this.sideLength - 1)
+            - this.colOf(index1) + Math.min(this.rowOf(index1), this.sideLength - 1);
+    return (Math.abs(dRow) + Math.abs(dCol) + Math.abs(dRow + dCol)) / 2;
   }
 
-  //determines if there is not a wall in the given direction
-  boolean canMove(String direction) {
-    switch (direction) {
+  //moves with the six keys around s, each in the direction it sits from s
+  int directionOf(String key) {
+    switch (key) {
       case "a":
-        return !this.leftWall;
+        return LEFT;
+      case "z":
+        return LEFT_DOWN;
+      case "x":
+        return RIGHT_DOWN;
       case "d":
-        return !this.rightWall;
+        return RIGHT;
       case "e":
-        return !this.rightUpWall;
-      case "x":
-        return !this.rightDownWall;
+        return RIGHT_UP;
       case "w":
-        return !this.leftUpWall;
-      case "z":
-        return !this.leftDownWall;
+        return LEFT_UP;
+      default:
+        return -1;
+    }
+  }
+
+  //finds the neighbor in the given direction, if it is inside the maze
+  int neighbor(int index, int dir) {
+    int row = this.rowOf(index);
+    int col = index - this.indexOf(row, 0);
+    int lastCol = this.rowWidth(row) - 1;
+    int lastRow = this.rows() - 1;
+    switch (dir) {
+      case LEFT:
+        return col != 0 ? index - 1 : -1;
+      case RIGHT:
+        return col != lastCol ? index + 1 : -1;
+      case RIGHT_UP:
+        if (row == 0 || (col == lastCol && row < this.sideLength)) {
+          return -1;
+        }
+        return this.indexOf(row - 1, row < this.sideLength ? col : col + 1);
+      case LEFT_UP:
+        if (row == 0 || (col == 0 && row < this.sideLength)) {
+          return -1;
+        }
+        return this.indexOf(row - 1, row < this.sideLength ? col - 1 : col);
+      case RIGHT_DOWN:
+        if (row == lastRow || (col == lastCol && row >= this.sideLength - 1)) {
+          return -1;
+        }
+        return this.indexOf(row + 1, row >= this.sideLength - 1 ? col : col + 1);
+      case LEFT_DOWN:
+        if (row == lastRow || (col == 0 && row >= this.sideLength - 1)) {
+          return -1;
+        }
+        return this.indexOf(row + 1, row >= this.sideLength - 1 ? col - 1 : col);
       default:
-        throw new IllegalArgumentException("Invalid direction: " + direction);
+        throw new IllegalArgumentException("Invalid direction: " + dir);
     }
   }
+}
 
-  //finds all the neighboring tiles that are not separated by a wall
-  ArrayList<ATile> accessibleNeighbors() {
-    ArrayList<ATile> neighbors = new ArrayList<ATile>();
-    if (!this.rightUpWall && this.rightUp != null) {
-      neighbors.add(this.rightUp);
+//represents a disjoint-set forest over dense int tile indices, used by Kruskal's algorithm
+//to track which tiles are already connected. Finds compress paths iteratively and unions
+//link by rank, so both are effectively constant time and never recurse
+class UnionFind {
+  private final int[] parent;
+  //rank is an upper bound on tree height, which stays below 32 for any int-sized forest
+  private final byte[] rank;
+
+  // Creates a UnionFind of the given size, where every index starts in its own set
+  UnionFind(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Size must be non-negative");
     }
-    if (!this.leftUpWall && this.leftUp != null) {
-      neighbors.add(this.leftUp);
+    this.parent = new int[size];
+    this.rank = new byte[size];
+    //every index starts as its own representative
+    for (int i = 0; i < size; i++) {
+      this.parent[i] = i;
     }
-    if (!this.leftWall && this.left != null) {
-      neighbors.add(this.left);
+  }
+
+  //finds the representative of the set containing index, pointing every index on the way
+  //directly at the representative
+  int find(int index) {
+    int root = index;
+    //walks up to the root
+    while (this.parent[root] != root) {
+      root = this.parent[root];
     }
-    if (!this.leftDownWall && this.leftDown != null) {
-      neighbors.add(this.leftDown);
+    //walks the same chain again, compressing it onto the root
+    while (this.parent[index] != root) {
+      int next = this.parent[index];
+      this.parent[index] = root;
+      index = next;
     }
-    if (!this.rightDownWall && this.rightDown != null) {
-      neighbors.add(this.rightDown);
+    return root;
+  }
+
+  //determines if the two indices are in the same set
+  boolean sameSet(int index1, int index2) {
+    return this.find(index1) == this.find(index2);
+  }
+
+  //merges the sets containing the two indices, attaching the shorter tree under the taller one.
+  //returns false if they were already in the same set
+  boolean union(int index1, int index2) {
+    int root1 = this.find(index1);
+    int root2 = this.find(index2);
+    if (root1 == root2) {
+      return false;
     }
-    if (!this.rightWall && this.right != null) {
-      neighbors.add(this.right);
+    if (this.rank[root1] < this.rank[root2]) {
+      this.parent[root1] = root2;
+    } else if (this.rank[root1] > this.rank[root2]) {
+      this.parent[root2] = root1;
+    } else {
+      this.parent[root2] = root1;
+      this.rank[root1]++;
     }
-    return neighbors;
+    return true;
+  }
+
+  //returns the number of indices in this UnionFind
+  int size() {
+    return this.parent.length;
   }
 
-  // Assigns this tile's neighbors to be the neighboring indices of the given grid,
-  // at the given position
-  void assignNeighbors(ArrayList<ArrayList<ATile>> grid, int rowPos, int colPos) {
-    if (colPos != 0) {
-      this.setLeft(grid.get(rowPos).get(colPos - 1));
+  //puts every index back in its own set, so the UnionFind can be reused without reallocating
+  void reset() {
+    //every index becomes its own representative again
+    for (int i = 0; i < this.parent.length; i++) {
+      this.parent[i] = i;
     }
-    if (colPos != grid.get(rowPos).size() - 1) {
-      this.setRight(grid.get(rowPos).get(colPos + 1));
+    Arrays.fill(this.rank, (byte) 0);
+  }
+}
+
+//represents a double-ended queue of ints in a circular array that doubles when it fills up,
+//so it can serve as both the stack of a depth first search and the queue of a breadth first one
+class IntDeque {
+  private int[] items;
+  //the position of the first item and the number of items
+  private int head;
+  private int size;
+
+  // Creates an empty IntDeque with room for the given number of items before growing
+  IntDeque(int capacity) {
+    this.items = new int[Math.max(1, capacity)];
+    this.head = 0;
+    this.size = 0;
+  }
+
+  // Creates an empty IntDeque
+  IntDeque() {
+    this(16);
+  }
+
+  //adds the given item to the front of this deque
+  void addFirst(int item) {
+    this.ensureRoom();
+    this.head = (this.head - 1 + this.items.length) % this.items.length;
+    this.items[this.head] = item;
+    this.size++;
+  }
+
+  //adds the given item to the back of this deque
+  void addLast(int item) {
+    this.ensureRoom();
+    this.items[(this.head + this.size) % this.items.length] = item;
+    this.size++;
+  }
+
+  //removes and returns the item at the front of this deque
+  int removeFirst() {
+    if (this.size == 0) {
+      throw new NoSuchElementException("Deque is empty");
     }
-    if (rowPos != 0 &&
-            (colPos != grid.get(rowPos).size() - 1 || rowPos >= grid.get(0).size())) {
-      if (rowPos < grid.get(0).size()) {
-        this.setRightUp(grid.get(rowPos - 1).get(colPos));
-      } else {
-        this.setRightUp(grid.get(rowPos - 1).get(colPos + 1));
-      }
+    int item = this.items[this.head];
+    this.head = (this.head + 1) % this.items.length;
+    this.size--;
+    return item;
+  }
+
+  //determines if this deque has no items
+  boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  //returns the number of items in this deque
+  int size() {
+    return this.size;
+  }
+
+  //returns the items of this deque from front to back
+  int[] toArray() {
+    int[] array = new int[this.size];
+    //copies the items in order, unwrapping them
+    for (int i = 0; i < this.size; i++) {
+      array[i] = this.items[(this.head + i) % this.items.length];
     }
-    if (rowPos != 0 && (colPos != 0 || rowPos >= grid.get(0).size())) {
-      if (rowPos < grid.get(0).size()) {
-        this.setLeftUp(grid.get(rowPos - 1).get(colPos - 1));
-      } else {
-        this.setLeftUp(grid.get(rowPos - 1).get(colPos));
-      }
+    return array;
+  }
+
+  //returns the item the given number of places from the front of this deque
+  int get(int i) {
+    if (i < 0 || i >= this.size) {
+      throw new IndexOutOfBoundsException("Not in the deque: " + i);
     }
-    if (rowPos != grid.size() - 1 &&
-            (colPos != grid.get(rowPos).size() - 1 || rowPos < grid.get(0).size() - 1)) {
-      if (rowPos >= grid.get(0).size() - 1) {
-        this.setRightDown(grid.get(rowPos + 1).get(colPos));
-      } else {
-        this.setRightDown(grid.get(rowPos + 1).get(colPos + 1));
+    return this.items[(this.head + i) % this.items.length];
+  }
+
+  //removes every item from this deque, keeping its capacity
+  void clear() {
+    this.head = 0;
+    this.size = 0;
+  }
+
+  //doubles the capacity of this deque if it is full, moving the items to the start
+  private void ensureRoom() {
+    if (this.size == this.items.length) {
+      int[] grown = new int[this.items.length * 2];
+      //copies the items in order, unwrapping them
+      for (int i = 0; i < this.size; i++) {
+        grown[i] = this.items[(this.head + i) % this.items.length];
       }
+      this.items = grown;
+      this.head = 0;
     }
-    if (rowPos != grid.size() - 1 && (colPos != 0 || rowPos < grid.get(0).size() - 1)) {
-      if (rowPos >= grid.get(0).size() - 1) {
-        this.setLeftDown(grid.get(rowPos + 1).get(colPos - 1));
-      } else {
-        this.setLeftDown(grid.get(rowPos + 1).get(colPos));
-      }
+  }
+}
+
+//represents a binary min-heap of tile indices keyed by int priorities, which can lower the
+//priority of a tile already in it. Each tile's position in the heap is tracked, so every
+//operation is O(log n) without allocating
+class IndexedMinHeap {
+  //the tiles in heap order, and the priority and heap position of every tile, or -1 if absent
+  private final int[] heap;
+  private final int[] priority;
+  private final int[] position;
+  private int size;
+
+  // Creates an empty IndexedMinHeap for tiles 0 to capacity - 1
+  IndexedMinHeap(int capacity) {
+    this.heap = new int[capacity];
+    this.priority = new int[capacity];
+    this.position = new int[capacity];
+    Arrays.fill(this.position, -1);
+    this.size = 0;
+  }
+
+  //determines if this heap has no tiles
+  boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  //returns the number of tiles in this heap
+  int size() {
+    return this.size;
+  }
+
+  //determines if the given tile is in this heap
+  boolean contains(int index) {
+    return this.position[index] != -1;
+  }
+
+  //adds the given tile with the given priority, or lowers its priority if it is already here
+  //with a higher one
+  void insertOrDecrease(int index, int newPriority) {
+    if (this.position[index] == -1) {
+      this.heap[this.size] = index;
+      this.position[index] = this.size;
+      this.priority[index] = newPriority;
+      this.size++;
+      this.siftUp(this.size - 1);
+    } else if (newPriority < this.priority[index]) {
+      this.priority[index] = newPriority;
+      this.siftUp(this.position[index]);
+    }
+  }
+
+  //removes and returns the tile with the lowest priority
+  int removeMin() {
+    if (this.size == 0) {
+      throw new NoSuchElementException("Heap is empty");
+    }
+    int min = this.heap[0];
+    this.size--;
+    this.position[min] = -1;
+    if (this.size > 0) {
+      this.heap[0] = this.heap[this.size];
+      this.position[this.heap[0]] = 0;
+      this.siftDown(0);
+    }
+    return min;
+  }
+
+  //removes every tile from this heap
+  void clear() {
+    //only the tiles still in the heap have positions to forget
+    for (int i = 0; i < this.size; i++) {
+      this.position[this.heap[i]] = -1;
     }
+    this.size = 0;
   }
 
-  // Appends this tile's right, rightDown, and leftDown neighbors as edges to the given ArrayList,
-  // with the edges created in accordance with the given bias.
-  void appendHalfEdges(ArrayList<Edge> edges, boolean diagBias, boolean horzBias) {
-    if (this.right != null) {
-      edges.add(new Edge(this, this.right, horzBias));
+  //moves the tile at the given heap position up until its parent is no higher
+  private void siftUp(int at) {
+    int index = this.heap[at];
+    //pulls each higher parent down into the hole
+    while (at > 0 && this.priority[this.heap[(at - 1) / 2]] > this.priority[index]) {
+      this.heap[at] = this.heap[(at - 1) / 2];
+      this.position[this.heap[at]] = at;
+      at = (at - 1) / 2;
     }
-    if (this.rightDown != null) {
-      edges.add(new Edge(this, this.rightDown, diagBias));
+    this.heap[at] = index;
+    this.position[index] = at;
+  }
+
+  //moves the tile at the given heap position down until its children are no lower
+  private void siftDown(int at) {
+    int index = this.heap[at];
+    //pulls the lower child up into the hole while it is lower than the tile
+    while (2 * at + 1 < this.size) {
+      int child = 2 * at + 1;
+      if (child + 1 < this.size
+              && this.priority[this.heap[child + 1]] < this.priority[this.heap[child]]) {
+        child++;
+      }
+      if (this.priority[this.heap[child]] >= this.priority[index]) {
+        break;
+      }
+      this.heap[at] = this.heap[child];
+      this.position[this.heap[at]] = at;
+      at = child;
+    }
+    this.heap[at] = index;
+    this.position[index] = at;
+  }
+}
+
+//computes the distance of every tile of a WallGrid from its start, from its exit and from one
+//other tile with a breadth first search, caching each until another wall is broken
+class HeatMap {
+  private final WallGrid walls;
+  //the distances from the start, the exit and the other tile
+  private final int[][] distances;
+  //the farthest distance in each array
+  private final int[] maxDistances;
+  //the source of each array, and the WallGrid's changes when it was computed, or -1 if it
+  //never was
+  private final int[] sources;
+  private final int[] computedAt;
+
+  // Creates a HeatMap for the given walls, computing nothing until it is asked for
+  HeatMap(WallGrid walls) {
+    this.walls = walls;
+    this.distances = new int[3][walls.size()];
+    this.maxDistances = new int[3];
+    this.sources = new int[] {0, walls.size() - 1, -1};
+    this.computedAt = new int[] {-1, -1, -1};
+  }
+
+  // Returns the distance of every tile from the exit if fromExit, or else from the start, where
+  // tiles that cannot be reached yet are -1. The array is shared, so it must not be changed
+  int[] distances(boolean fromExit) {
+    return this.distancesFrom(fromExit ? this.walls.size() - 1 : 0);
+  }
+
+  // Returns the farthest distance of any reachable tile from the exit if fromExit, or else from
+  // the start
+  int maxDistance(boolean fromExit) {
+    return this.maxDistanceFrom(fromExit ? this.walls.size() - 1 : 0);
+  }
+
+  // Returns the distance of every tile from the given tile, where tiles that cannot be reached
+  // yet are -1. The array is shared, so it must not be changed
+  int[] distancesFrom(int source) {
+    return this.distances[this.compute(source)];
+  }
+
+  // Returns the farthest distance of any reachable tile from the given tile
+  int maxDistanceFrom(int source) {
+    return this.maxDistances[this.compute(source)];
+  }
+
+  //makes sure the distances from the given tile are up to date, returning which array they are
+  //in. Tiles other than the start and exit share the last array
+  private int compute(int source) {
+    if (source < 0 || source >= this.walls.size()) {
+      throw new IllegalArgumentException("Not a tile: " + source);
+    }
+    int slot = 2;
+    if (source == this.sources[0]) {
+      slot = 0;
+    } else if (source == this.sources[1]) {
+      slot = 1;
+    }
+    if (this.sources[slot] != source || this.computedAt[slot] != this.walls.changes()) {
+      this.maxDistances[slot] = this.search(source, this.distances[slot]);
+      this.sources[slot] = source;
+      this.computedAt[slot] = this.walls.changes();
+    }
+    return slot;
+  }
+
+  //fills the given array with the distance of every tile from the given source breadth first,
+  //using the array's unreached entries as the seen set, and returns the farthest distance
+  private int search(int source, int[] distances) {
+    Arrays.fill(distances, -1);
+    //the queue never holds a tile twice, so an array of every tile is enough
+    int[] queue = new int[this.walls.size()];
+    int head = 0;
+    int tail = 1;
+    queue[0] = source;
+    distances[source] = 0;
+    //expands tiles in the order they were reached
+    while (head < tail) {
+      int curr = queue[head];
+      head++;
+      //reaches every open neighbor that has not been reached yet
+      for (int open = this.walls.openDirections(curr); open != 0; open &= open - 1) {
+        int neighbor = this.walls.neighbor(curr, Integer.numberOfTrailingZeros(open));
+        if (distances[neighbor] == -1) {
+          distances[neighbor] = distances[curr] + 1;
+          queue[tail] = neighbor;
+          tail++;
+        }
+      }
+    }
+    return distances[queue[tail - 1]];
+  }
+}
+
+//indexes the open walls of a finished maze as a tree rooted at one tile, so the path and distance
+//between any two tiles are found without searching. Every tile keeps its parent, its depth and a
+//jump pointer to a farther ancestor, laid out so that any ancestor is reached in O(log n) jumps
+//while using only O(n) memory
+class TreeIndex {
+  private final int[] parent;
+  private final int[] depth;
+  private final int[] jump;
+
+  // Creates a TreeIndex of the open walls of the given walls rooted at the given tile, which
+  // every tile must be reachable from
+  TreeIndex(WallGrid walls, int root) {
+    this(walls, root, openEdges(walls));
+  }
+
+  // Creates a TreeIndex of the given spanning tree of the given walls, packed as described in
+  // PackedEdges, rooted at the given tile. None of the tree's walls need to be broken yet
+  TreeIndex(WallGrid walls, long[] tree, int root) {
+    this(walls, root, treeEdges(walls, tree));
+  }
+
+  // Creates a TreeIndex of the given tiles rooted at the given tile, where ends[0][i] and
+  // ends[1][i] are the tiles on either side of the ith edge
+  private TreeIndex(WallGrid walls, int root, int[][] ends) {
+    this.parent = new int[walls.size()];
+    this.depth = new int[walls.size()];
+    this.jump = new int[walls.size()];
+    //lists the edges of every tile together, the edges of tile i from start[i] to start[i + 1]
+    int[] start = new int[walls.size() + 1];
+    //counts the edges of each tile
+    for (int[] side : ends) {
+      for (int tile : side) {
+        start[tile + 1]++;
+      }
+    }
+    //sums the counts, so each tile's edges start after those of the tiles before it
+    for (int i = 0; i < walls.size(); i++) {
+      start[i + 1] += start[i];
+    }
+    int[] adjacent = new int[start[walls.size()]];
+    int[] filled = Arrays.copyOf(start, walls.size());
+    //lists each edge with the tiles on both of its sides
+    for (int i = 0; i < ends[0].length; i++) {
+      adjacent[filled[ends[0][i]]++] = ends[1][i];
+      adjacent[filled[ends[1][i]]++] = ends[0][i];
+    }
+    Arrays.fill(this.parent, -1);
+    int[] queue = new int[walls.size()];
+    int head = 0;
+    int tail = 1;
+    queue[0] = root;
+    this.parent[root] = root;
+    this.jump[root] = root;
+    //reaches the tiles breadth first, so every parent is indexed before its children
+    while (head < tail) {
+      int curr = queue[head];
+      head++;
+      for (int i = start[curr]; i < start[curr + 1]; i++) {
+        int child = adjacent[i];
+        if (this.parent[child] == -1) {
+          this.parent[child] = curr;
+          this.depth[child] = this.depth[curr] + 1;
+          //jumps twice as far as the parent does when the parent's jump and the one after it
+          //cover the same distance, otherwise just to the parent
+          int up = this.jump[curr];
+          if (this.depth[curr] - this.depth[up] == this.depth[up] - this.depth[this.jump[up]]) {
+            this.jump[child] = this.jump[up];
+          } else {
+            this.jump[child] = curr;
+          }
+          queue[tail] = child;
+          tail++;
+        }
+      }
+    }
+    if (tail < walls.size()) {
+      throw new IllegalArgumentException("Not every tile is reachable from " + root);
+    }
+  }
+
+  //returns the tiles on either side of every open wall of the given walls, each wall once
+  private static int[][] openEdges(WallGrid walls) {
+    IntDeque from = new IntDeque();
+    IntDeque to = new IntDeque();
+    //lists the open walls to the neighbors after each tile
+    for (int tile = 0; tile < walls.size(); tile++) {
+      for (int open = walls.openDirections(tile); open != 0; open &= open - 1) {
+        int neighbor = walls.neighbor(tile, Integer.numberOfTrailingZeros(open));
+        if (neighbor > tile) {
+          from.addLast(tile);
+          to.addLast(neighbor);
+        }
+      }
+    }
+    return new int[][] {from.toArray(), to.toArray()};
+  }
+
+  //returns the tiles on either side of every edge of the given tree of the given walls
+  private static int[][] treeEdges(WallGrid walls, long[] tree) {
+    int[][] ends = new int[2][tree.length];
+    //unpacks the tile each edge belongs to and the neighbor across it
+    for (int i = 0; i < tree.length; i++) {
+      ends[0][i] = PackedEdges.tileIndex(tree[i]);
+      ends[1][i] = walls.neighbor(ends[0][i],
+              walls.halfEdgeDirection(PackedEdges.slot(tree[i])));
+    }
+    return ends;
+  }
+
+  //returns the tile the given tile was reached from, or the tile itself if it is the root
+  int parent(int index) {
+    return this.parent[index];
+  }
+
+  //returns how many steps the given tile is from the root
+  int depth(int index) {
+    return this.depth[index];
+  }
+
+  //returns the ancestor of the given tile at the given depth, which must not be below it
+  int ancestorAt(int index, int targetDepth) {
+    //takes the jump whenever it does not overshoot, otherwise a single step
+    while (this.depth[index] > targetDepth) {
+      if (this.depth[this.jump[index]] >= targetDepth) {
+        index = this.jump[index];
+      } else {
+        index = this.parent[index];
+      }
+    }
+    return index;
+  }
+
+  //returns the deepest tile that both given tiles descend from
+  int lowestCommonAncestor(int index1, int index2) {
+    index1 = this.ancestorAt(index1, this.depth[index2]);
+    index2 = this.ancestorAt(index2, this.depth[index1]);
+    //tiles at the same depth have jumps of the same length, so both can jump together until
+    //their jumps would meet
+    while (index1 != index2) {
+      if (this.jump[index1] != this.jump[index2]) {
+        index1 = this.jump[index1];
+        index2 = this.jump[index2];
+      } else {
+        index1 = this.parent[index1];
+        index2 = this.parent[index2];
+      }
+    }
+    return index1;
+  }
+
+  //returns the number of steps between the two given tiles
+  int distance(int index1, int index2) {
+    int common = this.lowestCommonAncestor(index1, index2);
+    return this.depth[index1] + this.depth[index2] - 2 * this.depth[common];
+  }
+
+  //returns the indices of the tiles along the path between the two given tiles, from the first
+  //to the second
+  int[] path(int from, int to) {
+    int common = this.lowestCommonAncestor(from, to);
+    int up = this.depth[from] - this.depth[common];
+    int[] path = new int[up + this.depth[to] - this.depth[common] + 1];
+    //climbs from the first tile to the common ancestor, filling the path from the front
+    for (int i = 0; i <= up; i++) {
+      path[i] = from;
+      from = this.parent[from];
+    }
+    //climbs from the second tile to just below the common ancestor, filling it from the back
+    for (int i = path.length - 1; i > up; i--) {
+      path[i] = to;
+      to = this.parent[to];
+    }
+    return path;
+  }
+}
+
+//builds the minimum spanning tree of randomly weighted walls of a WallGrid with Kruskal's
+//algorithm. Only reads the walls; breaking the tree's walls is left to the caller
+class KruskalBuilder {
+  //weights are drawn for chunks of this many tiles at a time, each from its own random source
+  static final int CHUNK_TILES = 1 << 12;
+  // Protected for subclasses building the tree differently
+  protected final WallGrid walls;
+  private final long seed;
+
+  // Creates a KruskalBuilder for the given walls, whose weights are drawn from the given seed
+  KruskalBuilder(WallGrid walls, long seed) {
+    this.walls = walls;
+    this.seed = seed;
+  }
+
+  // Creates a KruskalBuilder for the given walls with a random seed
+  KruskalBuilder(WallGrid walls) {
+    this(walls, new SplittableRandom().nextLong());
+  }
+
+  // Returns the walls this KruskalBuilder builds a tree for
+  WallGrid walls() {
+    return this.walls;
+  }
+
+  // Returns the seed the weights of this KruskalBuilder are drawn from
+  long seed() {
+    return this.seed;
+  }
+
+  // Returns an array with all possible edges between tiles in the walls, packed as described
+  // in PackedEdges, with the given weight biases. Horizontal edges take horzBias and the
+  // others vertBias. Each chunk of tiles draws its weights from its own split of the seed,
+  // split in chunk order, so the same seed always gives the same edges however the chunks run
+  long[] getEdges(boolean vertBias, boolean horzBias) {
+    int chunks = (this.walls.size() + CHUNK_TILES - 1) / CHUNK_TILES;
+    SplittableRandom root = new SplittableRandom(this.seed);
+    SplittableRandom[] randoms = new SplittableRandom[chunks];
+    //splits off the random source of every chunk in order
+    for (int chunk = 0; chunk < chunks; chunk++) {
+      randoms[chunk] = root.split();
+    }
+    long[] chunkStart = new long[chunks + 1];
+    //counts the half edges of every chunk to size the array exactly
+    this.runChunks(chunks, chunk -> {
+      int end = Math.min(this.walls.size(), (chunk + 1) * CHUNK_TILES);
+      for (int index = chunk * CHUNK_TILES; index < end; index++) {
+        for (int slot = 0; slot < this.walls.halfEdges(); slot++) {
+          if (this.walls.neighbor(index, this.walls.halfEdgeDirection(slot)) != -1) {
+            chunkStart[chunk + 1]++;
+          }
+        }
+      }
+    });
+    //turns the counts into starting positions
+    for (int chunk = 0; chunk < chunks; chunk++) {
+      chunkStart[chunk + 1] += chunkStart[chunk];
+    }
+    if (chunkStart[chunks] > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("Too many edges: " + chunkStart[chunks]);
+    }
+    long[] edges = new long[(int) chunkStart[chunks]];
+    //iterates through the tiles of every chunk and formulates the edges of their half edges
+    this.runChunks(chunks, chunk -> {
+      int next = (int) chunkStart[chunk];
+      int end = Math.min(this.walls.size(), (chunk + 1) * CHUNK_TILES);
+      for (int index = chunk * CHUNK_TILES; index < end; index++) {
+        for (int slot = 0; slot < this.walls.halfEdges(); slot++) {
+          if (this.walls.neighbor(index, this.walls.halfEdgeDirection(slot)) != -1) {
+            int weight = PackedEdges.randomWeight(randoms[chunk],
+                    slot == 0 ? horzBias : vertBias);
+            edges[next] = PackedEdges.pack(weight, index, slot);
+            next++;
+          }
+        }
+      }
+    });
+    return edges;
+  }
+
+  // Runs the given action on chunks 0 to chunks - 1, one after another
+  protected void runChunks(int chunks, IntConsumer action) {
+    //runs the chunks in order
+    for (int chunk = 0; chunk < chunks; chunk++) {
+      action.accept(chunk);
+    }
+  }
+
+  // Uses Kruskal's algorithm to gather the edges in the minimum spanning tree (maze), in the
+  // order of their weights
+  long[] buildTree(boolean vertBias, boolean horzBias) {
+    return this.buildTree(this.getEdges(vertBias, horzBias));
+  }
+
+  // Uses Kruskal's algorithm to gather the given edges that make up the minimum spanning tree,
+  // in the order of their weights. Reorders the given array
+  long[] buildTree(long[] edges) {
+    PackedEdges.radixSort(edges, 0, edges.length);
+    UnionFind representatives = new UnionFind(this.walls.size());
+    //a spanning tree of n tiles always has n - 1 edges
+    long[] edgesInTree = new long[this.walls.size() - 1];
+    this.addTreeEdges(edges, 0, edges.length, representatives, edgesInTree, 0);
+    return edgesInTree;
+  }
+
+  // Iterates through the sorted edges in [from, to) and adds the ones joining two different
+  // representatives to the tree after its first treeSize edges, stopping as soon as the tree
+  // spans every tile. Returns the new size of the tree
+  protected int addTreeEdges(long[] edges, int from, int to, UnionFind representatives,
+                             long[] tree, int treeSize) {
+    //Iterates through the edges by weight and checks their representatives to create the MST
+    for (int i = from; i < to && treeSize < tree.length; i++) {
+      if (representatives.union(PackedEdges.tileIndex(edges[i]), this.otherTile(edges[i]))) {
+        tree[treeSize] = edges[i];
+        treeSize++;
+      }
+    }
+    return treeSize;
+  }
+
+  // Returns the index of the tile on the far side of the given packed edge
+  protected int otherTile(long edge) {
+    int index = PackedEdges.tileIndex(edge);
+    return this.walls.neighbor(index, this.walls.halfEdgeDirection(PackedEdges.slot(edge)));
+  }
+}
+
+//builds the minimum spanning tree of a WallGrid's walls with filter-Kruskal on a ForkJoinPool.
+//The edges are split around a sampled pivot in parallel, the light side is solved first, and the
+//heavy side is filtered in parallel down to the edges that still join two components before it
+//is solved in turn. Packed edges never tie, so the tree and its order are exactly those the
+//sequential KruskalBuilder finds
+class ParallelKruskalBuilder extends KruskalBuilder {
+  //ranges at most this long are sorted and scanned on one thread by default
+  static final int DEFAULT_THRESHOLD = 1 << 16;
+  //how many evenly spaced edges are looked at to pick a pivot
+  private static final int PIVOT_SAMPLES = 63;
+  private final ForkJoinPool pool;
+  private final int threshold;
+
+  // Creates a ParallelKruskalBuilder for the given walls, whose weights are drawn from the
+  // given seed, running on the given pool and handing ranges of at most threshold edges to
+  // the sequential algorithm
+  ParallelKruskalBuilder(WallGrid walls, ForkJoinPool pool, int threshold, long seed) {
+    super(walls, seed);
+    if (threshold < 1) {
+      throw new IllegalArgumentException("Threshold must be positive");
+    }
+    this.pool = pool;
+    this.threshold = threshold;
+  }
+
+  // Creates a ParallelKruskalBuilder for the given walls with a random seed, running on the
+  // given pool and handing ranges of at most threshold edges to the sequential algorithm
+  ParallelKruskalBuilder(WallGrid walls, ForkJoinPool pool, int threshold) {
+    this(walls, pool, threshold, new SplittableRandom().nextLong());
+  }
+
+  // Creates a ParallelKruskalBuilder for the given walls with a random seed, running on the
+  // given pool
+  ParallelKruskalBuilder(WallGrid walls, ForkJoinPool pool) {
+    this(walls, pool, DEFAULT_THRESHOLD);
+  }
+
+  // Runs the given action on chunks 0 to chunks - 1 in parallel
+  protected void runChunks(int chunks, IntConsumer action) {
+    this.pool.invoke(new BlockAction(chunks, action));
+  }
+
+  // Uses filter-Kruskal to gather the given edges that make up the minimum spanning tree,
+  // in the order of their weights. Reorders the given array
+  long[] buildTree(long[] edges) {
+    UnionFind representatives = new UnionFind(this.walls.size());
+    long[] edgesInTree = new long[this.walls.size() - 1];
+    this.filterKruskal(edges, new long[edges.length], 0, edges.length, representatives,
+            edgesInTree, 0);
+    return edgesInTree;
+  }
+
+  // Adds the edges of the minimum spanning tree among the unsorted edges in [from, to) to the
+  // tree after its first treeSize edges, using scratch as working space over the same range.
+  // Returns the new size of the tree
+  private int filterKruskal(long[] edges, long[] scratch, int from, int to,
+                            UnionFind representatives, long[] tree, int treeSize) {
+    if (treeSize == tree.length || from >= to) {
+      return treeSize;
+    }
+    if (to - from <= this.threshold) {
+      PackedEdges.radixSort(edges, from, to);
+      return this.addTreeEdges(edges, from, to, representatives, tree, treeSize);
+    }
+    long pivot = this.pivot(edges, from, to);
+    int light = this.partition(edges, scratch, from, to, edge -> edge < pivot);
+    if (light == 0) {
+      //the pivot was the lightest edge, so splitting makes no progress
+      PackedEdges.radixSort(edges, from, to);
+      return this.addTreeEdges(edges, from, to, representatives, tree, treeSize);
+    }
+    treeSize = this.filterKruskal(edges, scratch, from, from + light, representatives, tree,
+            treeSize);
+    //no unions happen while filtering, so the finds only ever compress paths onto the same roots
+    int joining = this.partition(edges, scratch, from + light, to,
+        edge -> !representatives.sameSet(PackedEdges.tileIndex(edge), this.otherTile(edge)));
+    return this.filterKruskal(edges, scratch, from + light, from + light + joining,
+            representatives, tree, treeSize);
+  }
+
+  // Returns the median of evenly spaced edges in [from, to)
+  private long pivot(long[] edges, int from, int to) {
+    int samples = Math.min(PIVOT_SAMPLES, to - from);
+    long[] sample = new long[samples];
+    //picks evenly spaced edges
+    for (int i = 0; i < samples; i++) {
+      sample[i] = edges[from + (int) ((long) i * (to - from) / samples)];
+    }
+    Arrays.sort(sample);
+    return sample[samples / 2];
+  }
+
+  // Moves the edges in [from, to) that satisfy the predicate to the front of the range and the
+  // rest behind them, keeping the order within each side, and returns how many satisfied it.
+  // Blocks of the range are counted and then scattered into scratch in parallel
+  private int partition(long[] edges, long[] scratch, int from, int to, LongPredicate keep) {
+    int blocks = Math.max(1, Math.min(this.pool.getParallelism() * 4,
+            (to - from) / (this.threshold / 4 + 1)));
+    int blockSize = (to - from + blocks - 1) / blocks;
+    int[] kept = new int[blocks];
+    this.pool.invoke(new BlockAction(blocks, block -> {
+      int end = Math.min(to, from + (block + 1) * blockSize);
+      //counts the kept edges in this block
+      for (int i = from + block * blockSize; i < end; i++) {
+        if (keep.test(edges[i])) {
+          kept[block]++;
+        }
+      }
+    }));
+    int[] keptStart = new int[blocks];
+    int[] rejectedStart = new int[blocks];
+    int totalKept = 0;
+    //the kept edges of each block go after those of the blocks before it
+    for (int block = 0; block < blocks; block++) {
+      keptStart[block] = from + totalKept;
+      totalKept += kept[block];
+    }
+    int totalRejected = 0;
+    //the rejected edges all go after every kept edge
+    for (int block = 0; block < blocks; block++) {
+      rejectedStart[block] = from + totalKept + totalRejected;
+      totalRejected += Math.min(to, from + (block + 1) * blockSize)
+              - Math.min(to, from + block * blockSize) - kept[block];
+    }
+    this.pool.invoke(new BlockAction(blocks, block -> {
+      int keptAt = keptStart[block];
+      int rejectedAt = rejectedStart[block];
+      int end = Math.min(to, from + (block + 1) * blockSize);
+      //scatters this block's edges to their sides
+      for (int i = from + block * blockSize; i < end; i++) {
+        if (keep.test(edges[i])) {
+          scratch[keptAt] = edges[i];
+          keptAt++;
+        } else {
+          scratch[rejectedAt] = edges[i];
+          rejectedAt++;
+        }
+      }
+    }));
+    System.arraycopy(scratch, from, edges, from, to - from);
+    return totalKept;
+  }
+}
+
+//builds a spanning tree of a WallGrid's walls by splitting its rows into bands of roughly equal
+//size, running Kruskal's algorithm on each band's own walls in parallel, and then stitching the
+//bands together with Kruskal's algorithm over the walls between them. Every band is connected,
+//so each pair of neighboring bands ends up joined through exactly one of its lightest walls
+class TiledKruskalBuilder extends KruskalBuilder {
+  //about how many tiles go in each band by default, enough to keep a band's work in cache
+  static final int DEFAULT_BAND_TILES = 1 << 16;
+  private final ForkJoinPool pool;
+  private final int bandTiles;
+
+  // Creates a TiledKruskalBuilder for the given walls, whose weights are drawn from the given
+  // seed, running on the given pool with bands of about bandTiles tiles each
+  TiledKruskalBuilder(WallGrid walls, ForkJoinPool pool, int bandTiles, long seed) {
+    super(walls, seed);
+    if (bandTiles < 1) {
+      throw new IllegalArgumentException("Band size must be positive");
+    }
+    this.pool = pool;
+    this.bandTiles = bandTiles;
+  }
+
+  // Creates a TiledKruskalBuilder for the given walls with a random seed, running on the given
+  // pool with bands of about bandTiles tiles each
+  TiledKruskalBuilder(WallGrid walls, ForkJoinPool pool, int bandTiles) {
+    this(walls, pool, bandTiles, new SplittableRandom().nextLong());
+  }
+
+  // Creates a TiledKruskalBuilder for the given walls with a random seed, running on the given
+  // pool
+  TiledKruskalBuilder(WallGrid walls, ForkJoinPool pool) {
+    this(walls, pool, DEFAULT_BAND_TILES);
+  }
+
+  // Runs the given action on chunks 0 to chunks - 1 in parallel
+  protected void runChunks(int chunks, IntConsumer action) {
+    this.pool.invoke(new BlockAction(chunks, action));
+  }
+
+  // Returns how many rows go in each band
+  int rowsPerBand() {
+    long rows = (long) this.bandTiles * this.walls.rows() / this.walls.size();
+    return (int) Math.max(1, Math.min(rows, this.walls.rows()));
+  }
+
+  // Builds a tree band by band, each band formulating its own walls with weights drawn from its
+  // own split of the seed, then stitches the bands together. The result is a spanning tree in
+  // the order of its weights. Edges handed to buildTree(long[]) are solved sequentially instead
+  long[] buildTree(boolean vertBias, boolean horzBias) {
+    int rowsPerBand = this.rowsPerBand();
+    int bands = (this.walls.rows() + rowsPerBand - 1) / rowsPerBand;
+    int[] bandStart = new int[bands + 1];
+    SplittableRandom root = new SplittableRandom(this.seed());
+    SplittableRandom[] randoms = new SplittableRandom[bands];
+    //finds the index of each band's first tile and splits off its random source in band order
+    for (int band = 0; band < bands; band++) {
+      bandStart[band] = this.walls.indexOf(band * rowsPerBand, 0);
+      randoms[band] = root.split();
+    }
+    bandStart[bands] = this.walls.size();
+
+    UnionFind representatives = new UnionFind(this.walls.size());
+    long[] edgesInTree = new long[this.walls.size() - 1];
+    long[][] between = new long[bands][];
+    //a band of n tiles is connected, so its tree has n - 1 edges; bands only ever union their
+    //own tiles, so they can share the representatives
+    this.pool.invoke(new BlockAction(bands, band -> {
+      long[] edges = this.bandEdges(bandStart[band], bandStart[band + 1], randoms[band],
+              vertBias, horzBias);
+      //half edges only lead right or down, so the walls to the next band come last
+      int inside = edges.length;
+      while (inside > 0 && this.otherTile(edges[inside - 1]) >= bandStart[band + 1]) {
+        inside--;
+      }
+      between[band] = Arrays.copyOfRange(edges, inside, edges.length);
+      long[] bandTree = new long[bandStart[band + 1] - bandStart[band] - 1];
+      PackedEdges.radixSort(edges, 0, inside);
+      this.addTreeEdges(edges, 0, inside, representatives, bandTree, 0);
+      System.arraycopy(bandTree, 0, edgesInTree, bandStart[band] - band, bandTree.length);
+    }));
+
+    int crossing = 0;
+    //counts the walls between bands
+    for (long[] edges : between) {
+      crossing += edges.length;
+    }
+    long[] stitches = new long[crossing];
+    crossing = 0;
+    //gathers the walls between bands
+    for (long[] edges : between) {
+      System.arraycopy(edges, 0, stitches, crossing, edges.length);
+      crossing += edges.length;
+    }
+    //stitches the bands together through the lightest walls between them
+    PackedEdges.radixSort(stitches);
+    this.addTreeEdges(stitches, 0, stitches.length, representatives, edgesInTree,
+            this.walls.size() - bands);
+    PackedEdges.radixSort(edgesInTree);
+    return edgesInTree;
+  }
+
+  // Returns the edges of the half edges of the tiles in [from, to), with weights drawn from the
+  // given random source and biased as in getEdges. Edges leading past the band are moved behind
+  // the others, keeping the order within each side
+  private long[] bandEdges(int from, int to, SplittableRandom random, boolean vertBias,
+                           boolean horzBias) {
+    int inside = 0;
+    int outside = 0;
+    //counts the half edges within the band and those leading past it
+    for (int index = from; index < to; index++) {
+      for (int slot = 0; slot < this.walls.halfEdges(); slot++) {
+        int other = this.walls.neighbor(index, this.walls.halfEdgeDirection(slot));
+        if (other >= to) {
+          outside++;
+        } else if (other != -1) {
+          inside++;
+        }
+      }
+    }
+    long[] edges = new long[inside + outside];
+    int nextInside = 0;
+    int nextOutside = inside;
+    //formulates the edges of the band's half edges
+    for (int index = from; index < to; index++) {
+      for (int slot = 0; slot < this.walls.halfEdges(); slot++) {
+        int other = this.walls.neighbor(index, this.walls.halfEdgeDirection(slot));
+        if (other != -1) {
+          long edge = PackedEdges.pack(PackedEdges.randomWeight(random,
+                  slot == 0 ? horzBias : vertBias), index, slot);
+          if (other >= to) {
+            edges[nextOutside] = edge;
+            nextOutside++;
+          } else {
+            edges[nextInside] = edge;
+            nextInside++;
+          }
+        }
+      }
+    }
+    return edges;
+  }
+}
+
+//represents running an action on every block in a range of block numbers on a ForkJoinPool,
+//halving the range into subtasks until each holds a single block
+class BlockAction extends RecursiveAction {
+  //ForkJoinTasks are Serializable, though BlockActions are never serialized
+  private static final long serialVersionUID = 1L;
+  private final IntConsumer action;
+  private final int from;
+  private final int to;
+
+  // Creates a BlockAction running the given action on every block in [from, to)
+  BlockAction(int from, int to, IntConsumer action) {
+    this.action = action;
+    this.from = from;
+    this.to = to;
+  }
+
+  // Creates a BlockAction running the given action on blocks 0 to blocks - 1
+  BlockAction(int blocks, IntConsumer action) {
+    this(0, blocks, action);
+  }
+
+  // Runs the action on a single block, or splits the range between two subtasks
+  protected void compute() {
+    if (this.to - this.from == 1) {
+      this.action.accept(this.from);
+    } else if (this.to - this.from > 1) {
+      int mid = (this.from + this.to) >>> 1;
+      invokeAll(new BlockAction(this.from, mid, this.action),
+              new BlockAction(mid, this.to, this.action));
+    }
+  }
+}
+
+//represents a maze that is generated and solved without drawing anything. It holds nothing but
+//its WallGrid, with no tiles, Worlds or WorldImages, so its size is limited only by memory
+class HeadlessMaze {
+  private final WallGrid walls;
+
+  // Creates a HeadlessMaze with the walls of the given builder, breaking the walls of the
+  // spanning tree it builds with the given biases
+  HeadlessMaze(KruskalBuilder builder, boolean vertBias, boolean horzBias) {
+    this.walls = builder.walls();
+    //breaks every wall of the spanning tree at once, as there is no construction to show
+    for (long edge : builder.buildTree(vertBias, horzBias)) {
+      this.walls.breakPackedEdge(edge);
+    }
+  }
+
+  // Creates a HeadlessMaze with the given walls, breaking the walls of a spanning tree
+  // built on the common pool with the given biases
+  HeadlessMaze(WallGrid walls, boolean vertBias, boolean horzBias) {
+    this(new ParallelKruskalBuilder(walls, ForkJoinPool.commonPool()), vertBias, horzBias);
+  }
+
+  // Creates a HeadlessMaze of the given size with the given biases, using the provided TileUtils
+  // for calculating row width
+  HeadlessMaze(TileUtils utils, int height, int firstRowWidth, boolean vertBias,
+               boolean horzBias) {
+    this(utils.generateWalls(height, firstRowWidth), vertBias, horzBias);
+  }
+
+  // Creates a HeadlessMaze of the given size with the given biases, generated on the common
+  // pool from the given seed, using the provided TileUtils for calculating row width
+  HeadlessMaze(TileUtils utils, int height, int firstRowWidth, boolean vertBias,
+               boolean horzBias, long seed) {
+    this(new ParallelKruskalBuilder(utils.generateWalls(height, firstRowWidth),
+            ForkJoinPool.commonPool(), ParallelKruskalBuilder.DEFAULT_THRESHOLD, seed), vertBias,
+            horzBias);
+  }
+
+  // Returns the walls of this HeadlessMaze
+  WallGrid walls() {
+    return this.walls;
+  }
+
+  // Finds the path from the top-left tile to the exit breadth first, returning the indices of
+  // the tiles along it from start to exit
+  int[] solve() {
+    int exit = this.walls.size() - 1;
+    //the tile each tile was first reached from, or -1 if it has not been reached
+    int[] parents = new int[this.walls.size()];
+    Arrays.fill(parents, -1);
+    int[] queue = new int[this.walls.size()];
+    int head = 0;
+    int tail = 1;
+    queue[0] = 0;
+    parents[0] = 0;
+    //expands tiles in the order they were reached until the exit is reached
+    while (head < tail && parents[exit] == -1) {
+      int curr = queue[head];
+      head++;
+      //reaches every open neighbor that has not been reached yet
+      for (int open = this.walls.openDirections(curr); open != 0; open &= open - 1) {
+        int neighbor = this.walls.neighbor(curr, Integer.numberOfTrailingZeros(open));
+        if (parents[neighbor] == -1) {
+          parents[neighbor] = curr;
+          queue[tail] = neighbor;
+          tail++;
+        }
+      }
+    }
+    int length = 1;
+    //counts the tiles on the path by walking back from the exit
+    for (int curr = exit; curr != 0; curr = parents[curr]) {
+      length++;
+    }
+    int[] path = new int[length];
+    int curr = exit;
+    //fills in the path from the exit back to the start
+    for (int i = length - 1; i >= 0; i--) {
+      path[i] = curr;
+      curr = parents[curr];
+    }
+    return path;
+  }
+
+  // Finds the path from the top-left tile to the exit by filling in dead ends in parallel on
+  // the given pool, returning the indices of the tiles along it from start to exit
+  int[] solveByFilling(ForkJoinPool pool) {
+    return new DeadEndFiller(this.walls, pool).solve();
+  }
+
+  // Finds the path from the top-left tile to the exit breadth first from both ends at once,
+  // returning the indices of the tiles along it from start to exit
+  int[] solveBidirectional() {
+    BidirectionalSearch search = new BidirectionalSearch(this.walls);
+    //expands tiles until the sides meet; a spanning tree always connects them
+    while (!search.step()) {
+      if (search.exhausted()) {
+        throw new IllegalStateException("The exit cannot be reached");
+      }
+    }
+    return search.path();
+  }
+}
+
+//receives the rows of a rectangular maze one at a time, from top to bottom
+interface IRowSink {
+  // Accepts the given row of the maze, where openRight[col] tells whether the wall to the
+  // right of the tile at col is broken and openDown[col] whether the wall below it is. The
+  // arrays are reused for the next row, so they must be copied to be kept
+  void acceptRow(int row, boolean[] openRight, boolean[] openDown);
+}
+
+//generates a rectangular maze row by row with Eller's algorithm, only ever keeping the sets of
+//the current row, so a maze of any height is generated in memory proportional to its width
+class EllerGenerator {
+  private final int width;
+  private final int height;
+  private final long seed;
+
+  // Creates an EllerGenerator for mazes of the given size, generated from the given seed
+  EllerGenerator(int width, int height, long seed) {
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException("A maze needs at least one tile");
+    }
+    this.width = width;
+    this.height = height;
+    this.seed = seed;
+  }
+
+  // Creates an EllerGenerator for mazes of the given size with a random seed
+  EllerGenerator(int width, int height) {
+    this(width, height, new SplittableRandom().nextLong());
+  }
+
+  // Generates a perfect maze, handing each row to the given sink as soon as it is done.
+  // Generating again gives the same maze
+  void generate(IRowSink sink) {
+    SplittableRandom random = new SplittableRandom(this.seed);
+    //the set of each tile in the current row, labelled from 0 to width - 1
+    int[] sets = new int[this.width];
+    int[] nextSets = new int[this.width];
+    //maps a representative in this row to its label in the next one
+    int[] relabel = new int[this.width];
+    //how many tiles of each set have been seen, and which of them goes down if none chose to
+    int[] seen = new int[this.width];
+    int[] fallback = new int[this.width];
+    boolean[] wentDown = new boolean[this.width];
+    boolean[] openRight = new boolean[this.width];
+    boolean[] openDown = new boolean[this.width];
+    UnionFind joined = new UnionFind(this.width);
+    //every tile of the first row starts in its own set
+    for (int col = 0; col < this.width; col++) {
+      sets[col] = col;
+    }
+
+    for (int row = 0; row < this.height; row++) {
+      boolean lastRow = row == this.height - 1;
+      joined.reset();
+      //joins neighbors in different sets at random, or always in the last row
+      for (int col = 0; col < this.width - 1; col++) {
+        openRight[col] = (lastRow || random.nextBoolean())
+                && joined.union(sets[col], sets[col + 1]);
+      }
+      openRight[this.width - 1] = false;
+
+      Arrays.fill(openDown, false);
+      if (!lastRow) {
+        Arrays.fill(seen, 0);
+        Arrays.fill(wentDown, false);
+        //opens walls downwards at random, remembering a random tile of every set
+        for (int col = 0; col < this.width; col++) {
+          int rep = joined.find(sets[col]);
+          seen[rep]++;
+          if (random.nextInt(seen[rep]) == 0) {
+            fallback[rep] = col;
+          }
+          openDown[col] = random.nextBoolean();
+          wentDown[rep] = wentDown[rep] || openDown[col];
+        }
+        Arrays.fill(relabel, -1);
+        int nextLabel = 0;
+        //every set must go down at least once, or it would be cut off from the rest
+        for (int col = 0; col < this.width; col++) {
+          int rep = joined.find(sets[col]);
+          if (!wentDown[rep] && fallback[rep] == col) {
+            openDown[col] = true;
+          }
+          //tiles below an open wall keep their set, the rest start new ones
+          if (openDown[col]) {
+            if (relabel[rep] == -1) {
+              relabel[rep] = nextLabel;
+              nextLabel++;
+            }
+            nextSets[col] = relabel[rep];
+          } else {
+            nextSets[col] = -1;
+          }
+        }
+        //gives the tiles starting new sets the unused labels
+        for (int col = 0; col < this.width; col++) {
+          if (nextSets[col] == -1) {
+            nextSets[col] = nextLabel;
+            nextLabel++;
+          }
+        }
+      }
+
+      sink.acceptRow(row, openRight, openDown);
+      int[] temp = sets;
+      sets = nextSets;
+      nextSets = temp;
+    }
+  }
+}
+
+//writes the rows of a maze to an Appendable as text, drawing corners with +, walls with | and --
+//and leaving broken walls blank
+class TextRowSink implements IRowSink {
+  private final Appendable out;
+  private final StringBuilder line = new StringBuilder();
+
+  // Creates a TextRowSink writing to the given Appendable
+  TextRowSink(Appendable out) {
+    this.out = out;
+  }
+
+  // Writes the given row, preceded by the top border if it is the first one
+  public void acceptRow(int row, boolean[] openRight, boolean[] openDown) {
+    this.line.setLength(0);
+    if (row == 0) {
+      //the top border is always closed
+      for (int col = 0; col < openRight.length; col++) {
+        this.line.append("+--");
+      }
+      this.line.append("+\n");
+    }
+    this.line.append('|');
+    //draws the tiles of the row and the walls to their right
+    for (int col = 0; col < openRight.length; col++) {
+      this.line.append(openRight[col] ? "   " : "  |");
+    }
+    this.line.append("\n");
+    //draws the walls below the row
+    for (int col = 0; col < openDown.length; col++) {
+      this.line.append(openDown[col] ? "+  " : "+--");
+    }
+    this.line.append("+\n");
+    try {
+      this.out.append(this.line);
+    } catch (java.io.IOException e) {
+      throw new java.io.UncheckedIOException(e);
+    }
+  }
+}
+
+//breaks the walls of a RectWallGrid as the rows of a maze come in
+class WallGridRowSink implements IRowSink {
+  private final RectWallGrid walls;
+
+  // Creates a WallGridRowSink breaking the walls of the given grid
+  WallGridRowSink(RectWallGrid walls) {
+    this.walls = walls;
+  }
+
+  // Breaks the walls that are open in the given row
+  public void acceptRow(int row, boolean[] openRight, boolean[] openDown) {
+    if (openRight.length != this.walls.rowWidth(0) || row >= this.walls.rows()) {
+      throw new IllegalArgumentException("Row does not fit the grid: " + row);
+    }
+    //breaks every open wall to the right of or below a tile of the row
+    for (int col = 0; col < openRight.length; col++) {
+      int index = this.walls.indexOf(row, col);
+      if (openRight[col]) {
+        this.walls.breakWall(index, RectWallGrid.RIGHT);
+      }
+      if (openDown[col]) {
+        this.walls.breakWall(index, RectWallGrid.DOWN);
+      }
+    }
+  }
+}
+
+//solves a perfect maze by dead-end filling: tiles with a single open wall, other than the start
+//and exit, are filled in, which can leave their neighbor with a single open wall in turn, until
+//only the solution corridor is left. The tiles are split into stripes of consecutive indices
+//that fill in parallel on a ForkJoinPool, each with its own worklist. Filling a tile next to
+//another stripe is passed on to that stripe between rounds, so no two threads ever change the
+//same degree
+class DeadEndFiller {
+  //about how many tiles go in each stripe by default
+  static final int DEFAULT_STRIPE_TILES = 1 << 14;
+  private final WallGrid walls;
+  private final ForkJoinPool pool;
+  private final int stripeTiles;
+
+  // Creates a DeadEndFiller for the given walls, filling stripes of stripeTiles tiles on the
+  // given pool
+  DeadEndFiller(WallGrid walls, ForkJoinPool pool, int stripeTiles) {
+    if (stripeTiles < 1) {
+      throw new IllegalArgumentException("Stripe size must be positive");
+    }
+    this.walls = walls;
+    this.pool = pool;
+    this.stripeTiles = stripeTiles;
+  }
+
+  // Creates a DeadEndFiller for the given walls, filling stripes on the given pool
+  DeadEndFiller(WallGrid walls, ForkJoinPool pool) {
+    this(walls, pool, DEFAULT_STRIPE_TILES);
+  }
+
+  // Returns the indices of the tiles along the path from the start to the exit
+  int[] solve() {
+    int size = this.walls.size();
+    int stripes = (size + this.stripeTiles - 1) / this.stripeTiles;
+    //the number of open walls to tiles that are not filled in yet
+    int[] degrees = new int[size];
+    boolean[] filled = new boolean[size];
+    IntDeque[] worklists = new IntDeque[stripes];
+    //the tiles in other stripes that lost a neighbor to each stripe this round
+    IntDeque[] crossings = new IntDeque[stripes];
+    for (int stripe = 0; stripe < stripes; stripe++) {
+      worklists[stripe] = new IntDeque();
+      crossings[stripe] = new IntDeque();
+    }
+    this.pool.invoke(new BlockAction(stripes, stripe -> {
+      int end = Math.min(size, (stripe + 1) * this.stripeTiles);
+      //counts the open walls of every tile, queueing the dead ends
+      for (int index = stripe * this.stripeTiles; index < end; index++) {
+        degrees[index] = Integer.bitCount(this.walls.openDirections(index));
+        if (this.isDeadEnd(index, degrees)) {
+          worklists[stripe].addLast(index);
+        }
+      }
+    }));
+
+    boolean pending = true;
+    //fills every stripe, then passes the crossings on, until no stripe has dead ends left
+    while (pending) {
+      this.pool.invoke(new BlockAction(stripes,
+          stripe -> this.fillStripe(stripe, degrees, filled, worklists[stripe],
+                  crossings[stripe])));
+      pending = false;
+      for (IntDeque crossing : crossings) {
+        while (!crossing.isEmpty()) {
+          int index = crossing.removeFirst();
+          degrees[index]--;
+          if (this.isDeadEnd(index, degrees)) {
+            worklists[index / this.stripeTiles].addLast(index);
+            pending = true;
+          }
+        }
+      }
+    }
+    return this.corridor(filled);
+  }
+
+  //fills in the dead ends on the given stripe's worklist and the ones that creates, passing the
+  //neighbors in other stripes to crossing. A dead end's one open neighbor that is not filled
+  //cannot be filling in another stripe at the same time, as the two would make up the whole
+  //maze without its start and exit
+  private void fillStripe(int stripe, int[] degrees, boolean[] filled, IntDeque worklist,
+                          IntDeque crossing) {
+    while (!worklist.isEmpty()) {
+      int index = worklist.removeFirst();
+      filled[index] = true;
+      //finds the neighbor that is still open and takes this tile away from it
+      for (int open = this.walls.openDirections(index); open != 0; open &= open - 1) {
+        int neighbor = this.walls.neighbor(index, Integer.numberOfTrailingZeros(open));
+        if (!filled[neighbor]) {
+          if (neighbor / this.stripeTiles == stripe) {
+            degrees[neighbor]--;
+            if (this.isDeadEnd(neighbor, degrees)) {
+              worklist.addLast(neighbor);
+            }
+          } else {
+            crossing.addLast(neighbor);
+          }
+          break;
+        }
+      }
+    }
+  }
+
+  //determines if the given tile is a dead end that can be filled in
+  private boolean isDeadEnd(int index, int[] degrees) {
+    return degrees[index] == 1 && index != 0 && index != this.walls.size() - 1;
+  }
+
+  //walks the tiles left open from the start to the exit
+  private int[] corridor(boolean[] filled) {
+    IntDeque path = new IntDeque();
+    int prev = -1;
+    int curr = 0;
+    path.addLast(0);
+    //steps to the open neighbor that is not the previous tile until the exit is reached
+    while (curr != this.walls.size() - 1) {
+      int next = -1;
+      for (int open = this.walls.openDirections(curr); open != 0 && next == -1;
+           open &= open - 1) {
+        int neighbor = this.walls.neighbor(curr, Integer.numberOfTrailingZeros(open));
+        if (!filled[neighbor] && neighbor != prev) {
+          next = neighbor;
+        }
+      }
+      if (next == -1 || path.size() == this.walls.size()) {
+        throw new IllegalStateException("The exit cannot be reached");
+      }
+      prev = curr;
+      curr = next;
+      path.addLast(curr);
+    }
+    return path.toArray();
+  }
+}
+
+//traces the walk of someone keeping their left hand on the wall of a WallGrid from the start
+//until they reach the exit, computed once so it can be replayed one step at a time. They start
+//with their hand to the left, turn right until their hand is on an open wall, step through it
+//and then feel for the wall a step clockwise of the way they came. In a perfect maze this is the
+//tour of the spanning tree up to the exit, so every wall is passed through at most twice
+class WallFollower {
+  //the tile after each step, starting with the start, and the direction of each step
+  private final int[] tiles;
+  private final int[] moves;
+
+  // Creates the walk of a left-hand wall follower through the given walls
+  WallFollower(WallGrid walls) {
+    int exit = walls.size() - 1;
+    int dirs = walls.directions();
+    IntDeque tiles = new IntDeque();
+    IntDeque moves = new IntDeque();
+    tiles.addLast(0);
+    int curr = 0;
+    int hand = 0;
+    //takes one step per loop until the exit is reached
+    while (curr != exit) {
+      int turns = 0;
+      int open = walls.openDirections(curr);
+      //turns right until the hand is on an open wall
+      while (turns < dirs && (open & 1 << hand) == 0) {
+        hand = (hand + dirs - 1) % dirs;
+        turns++;
+      }
+      //a tree is toured in 2 * (size - 1) steps, so any more means the walk goes in circles
+      if (turns == dirs || moves.size() >= 2 * walls.size()) {
+        throw new IllegalStateException("The exit cannot be reached");
+      }
+      curr = walls.neighbor(curr, hand);
+      tiles.addLast(curr);
+      moves.addLast(hand);
+      hand = (hand + dirs / 2 - 1) % dirs;
+    }
+    this.tiles = tiles.toArray();
+    this.moves = moves.toArray();
+  }
+
+  // Returns how many steps the walk takes
+  int steps() {
+    return this.moves.length;
+  }
+
+  // Returns the tile the walk is on after the given number of steps
+  int tileAfter(int step) {
+    return this.tiles[step];
+  }
+
+  // Returns the direction of the given step, counting from 0
+  int moveAt(int step) {
+    return this.moves[step];
+  }
+
+  // Returns the direction the hand feels for after the given step
+  int handAfter(int step, int directions) {
+    return (this.moves[step] + directions / 2 - 1) % directions;
+  }
+}
+
+//represents a breadth first search of a WallGrid from its start and its exit at once, expanding
+//one tile from each side in turn until a tile reached from one side is reached from the other
+class BidirectionalSearch {
+  private final WallGrid walls;
+  private final IntDeque fromStart;
+  private final IntDeque fromExit;
+  //the tile each tile was first reached from by each side, or -1 if that side has not reached it
+  private final int[] startParents;
+  private final int[] exitParents;
+  //whether the exit side expands next
+  private boolean exitTurn;
+  //the tile where the two sides met, or -1 if they have not yet
+  private int meeting;
+  //the tile expanded most recently, or -1 if none has been, and how many have been
+  private int lastExpanded;
+  private int expanded;
+
+  // Creates a BidirectionalSearch of the given walls, ready to expand the start
+  BidirectionalSearch(WallGrid walls) {
+    this.walls = walls;
+    this.fromStart = new IntDeque();
+    this.fromExit = new IntDeque();
+    this.startParents = new int[walls.size()];
+    this.exitParents = new int[walls.size()];
+    this.reset();
+  }
+
+  // Starts the search over from the start and the exit
+  void reset() {
+    int exit = this.walls.size() - 1;
+    this.fromStart.clear();
+    this.fromExit.clear();
+    Arrays.fill(this.startParents, -1);
+    Arrays.fill(this.exitParents, -1);
+    this.fromStart.addLast(0);
+    this.startParents[0] = 0;
+    this.fromExit.addLast(exit);
+    this.exitParents[exit] = exit;
+    this.exitTurn = false;
+    //a single tile is both the start and the exit
+    this.meeting = exit == 0 ? 0 : -1;
+    this.lastExpanded = -1;
+    this.expanded = 0;
+  }
+
+  // Expands one tile from the side whose turn it is, or the other if that side has nothing left
+  // to expand, and returns whether the two sides have met
+  boolean step() {
+    if (this.meeting != -1 || this.fromStart.isEmpty() && this.fromExit.isEmpty()) {
+      return this.meeting != -1;
+    }
+    if (this.exitTurn ? this.fromExit.isEmpty() : this.fromStart.isEmpty()) {
+      this.exitTurn = !this.exitTurn;
+    }
+    IntDeque queue = this.exitTurn ? this.fromExit : this.fromStart;
+    int[] own = this.exitTurn ? this.exitParents : this.startParents;
+    int[] other = this.exitTurn ? this.startParents : this.exitParents;
+    int curr = queue.removeFirst();
+    this.lastExpanded = curr;
+    this.expanded++;
+    //reaches every open neighbor this side has not, stopping if the other side already has
+    for (int open = this.walls.openDirections(curr); open != 0 && this.meeting == -1;
+         open &= open - 1) {
+      int neighbor = this.walls.neighbor(curr, Integer.numberOfTrailingZeros(open));
+      if (own[neighbor] == -1) {
+        own[neighbor] = curr;
+        if (other[neighbor] != -1) {
+          this.meeting = neighbor;
+        }
+        queue.addLast(neighbor);
+      }
+    }
+    this.exitTurn = !this.exitTurn;
+    return this.meeting != -1;
+  }
+
+  // Returns the indices of the tiles along the path from the start to the exit through the
+  // tile where the two sides met
+  int[] path() {
+    if (this.meeting == -1) {
+      throw new IllegalStateException("The two sides have not met");
+    }
+    int toStart = 0;
+    //counts the steps from the meeting back to the start
+    for (int curr = this.meeting; curr != 0; curr = this.startParents[curr]) {
+      toStart++;
+    }
+    int toExit = 0;
+    //counts the steps from the meeting on to the exit
+    for (int curr = this.meeting; curr != this.walls.size() - 1; curr = this.exitParents[curr]) {
+      toExit++;
+    }
+    int[] path = new int[toStart + toExit + 1];
+    int curr = this.meeting;
+    //fills in the start half backwards from the meeting
+    for (int i = toStart; i >= 0; i--) {
+      path[i] = curr;
+      curr = this.startParents[curr];
+    }
+    curr = this.meeting;
+    //fills in the exit half forwards from the meeting
+    for (int i = toStart; i < path.length; i++) {
+      path[i] = curr;
+      curr = this.exitParents[curr];
+    }
+    return path;
+  }
+
+  // Determines if both sides have run out of tiles to expand without meeting
+  boolean exhausted() {
+    return this.meeting == -1 && this.fromStart.isEmpty() && this.fromExit.isEmpty();
+  }
+
+  // Returns the tile expanded most recently, or -1 if none has been
+  int lastExpanded() {
+    return this.lastExpanded;
+  }
+
+  // Returns how many tiles have been expanded from both sides together
+  int expandedCount() {
+    return this.expanded;
+  }
+}
+
+//Utility methods for edges packed into a single long, 8 bytes per wall: the weight sits in the
+//high bits and the tile-pair (a tile index and which of its half edges) in the low bits,
+//so sorting the packed values sorts the edges by weight
+class PackedEdges {
+  //weights are drawn from [0, MAX_WEIGHT)
+  static final int MAX_WEIGHT = 100 * 60;
+  //low bits hold the slot of the half edge (see WallGrid.halfEdgeDirection),
+  //above them the tile index
+  static final int SLOT_BITS = 2;
+  static final int WEIGHT_SHIFT = SLOT_BITS + 31;
+  //sorting handles the weight bits one byte at a time
+  private static final int RADIX_BITS = 8;
+  private static final int RADIX = 1 << RADIX_BITS;
+
+  //packs the given weight, tile index and slot into one edge
+  static long pack(int weight, int tileIndex, int slot) {
+    return (long) weight << WEIGHT_SHIFT | (long) tileIndex << SLOT_BITS | slot;
+  }
+
+  //returns the weight of the given packed edge
+  static int weight(long edge) {
+    return (int) (edge >>> WEIGHT_SHIFT);
+  }
+
+  //returns the index of the tile the given packed edge starts from
+  static int tileIndex(long edge) {
+    return (int) ((edge >>> SLOT_BITS) & Integer.MAX_VALUE);
+  }
+
+  //returns which of its tile's half edges the given packed edge is
+  static int slot(long edge) {
+    return (int) (edge & ((1 << SLOT_BITS) - 1));
+  }
+
+  //returns a random weight for an edge drawn from the given source, biased towards lower
+  //weights if bias == true
+  static int randomWeight(SplittableRandom random, boolean bias) {
+    if (bias) {
+      return random.nextInt(MAX_WEIGHT / 2);
+    } else {
+      return random.nextInt(MAX_WEIGHT);
+    }
+  }
+
+  //sorts the given packed edges by weight with a stable LSD radix sort, so edges of equal weight
+  //keep their order. Runs one linear pass per byte of the largest weight
+  static void radixSort(long[] edges) {
+    radixSort(edges, 0, edges.length);
+  }
+
+  //sorts the packed edges in [begin, end) of the given array by weight, as radixSort does
+  static void radixSort(long[] edges, int begin, int end) {
+    int maxWeight = 0;
+    //finds the largest weight, which bounds the number of passes
+    for (int i = begin; i < end; i++) {
+      maxWeight = Math.max(maxWeight, weight(edges[i]));
+    }
+    if (maxWeight == 0) {
+      return;
+    }
+    //each pass moves the edges between the range and one scratch array, so the sort needs
+    //only one more array of the range's length
+    long[] from = edges;
+    int fromBegin = begin;
+    long[] to = new long[end - begin];
+    int toBegin = 0;
+    int[] counts = new int[RADIX];
+    //sorts on each byte of the weight, least significant first
+    for (int shift = 0; shift < 31 && (maxWeight >>> shift) != 0; shift += RADIX_BITS) {
+      Arrays.fill(counts, 0);
+      int bitShift = WEIGHT_SHIFT + shift;
+      //counts the edges with each digit
+      for (int i = fromBegin; i < fromBegin + end - begin; i++) {
+        counts[(int) (from[i] >>> bitShift) & (RADIX - 1)]++;
+      }
+      //turns the counts into starting positions
+      int start = toBegin;
+      for (int digit = 0; digit < RADIX; digit++) {
+        int count = counts[digit];
+        counts[digit] = start;
+        start += count;
+      }
+      //scatters the edges into their positions, preserving order within a digit
+      for (int i = fromBegin; i < fromBegin + end - begin; i++) {
+        int digit = (int) (from[i] >>> bitShift) & (RADIX - 1);
+        to[counts[digit]] = from[i];
+        counts[digit]++;
+      }
+      long[] temp = from;
+      from = to;
+      to = temp;
+      int tempBegin = fromBegin;
+      fromBegin = toBegin;
+      toBegin = tempBegin;
     }
-    if (this.leftDown != null) {
-      edges.add(new Edge(this, this.leftDown, diagBias));
+    //after an odd number of passes the sorted edges are in the scratch array
+    if (from != edges) {
+      System.arraycopy(from, 0, edges, begin, end - begin);
     }
   }
 }
 
-//represents a connection between two ATiles
-class Edge {
-
-  private final ATile tile1;
-  private final ATile tile2;
-  private final int weight;
-
-  // Creates an edge between the given tiles with the given weights
-  Edge(ATile tile1, ATile tile2, int weight) {
-    this.tile1 = tile1;
-    this.tile2 = tile2;
-    this.weight = weight;
-  }
+//represents something told about every change to the tiles of a maze as it happens, as the
+//index of the tile and the kind of change, so it can keep up with the maze in time proportional
+//to the changes. A change to every tile at once is told with the index -1
+interface IMazeListener {
+  //the tile became the one being processed
+  static final int VISITING = 0;
+  //the tile was processed
+  static final int VISITED = 1;
+  //a wall of the tile was broken
+  static final int WALL_BROKEN = 2;
+  //the heats of the tiles were assigned
+  static final int HEAT = 3;
+  //the maze was restarted, so no tile is visiting or visited
+  static final int RESET = 4;
+  //whether visited tiles or heats are shown was toggled
+  static final int DISPLAY = 5;
+
+  // Is told that the tile at the given index, or every tile if -1, changed in the given way
+  void tileChanged(int index, int kind);
+}
 
-  //randomly sets the weight of this edge, biased towards lower weights if bias == true
-  Edge(ATile tile1, ATile tile2, boolean bias) {
-    this.tile1 = tile1;
-    this.tile2 = tile2;
-    if (bias) {
-      this.weight = (int) (Math.random() * 100 * 60 / 2);
-    } else {
-      this.weight = (int) (Math.random() * 100 * 60);
+//records the latest changes to the tiles of a maze in a fixed-size ring, for a recorder or
+//exporter to read back and clear between frames without allocating. Once full, each new change
+//overwrites the oldest one, which is counted as dropped
+class MazeEventBuffer implements IMazeListener {
+  private final int[] indices;
+  private final int[] kinds;
+  //the position of the oldest change, how many are recorded, and how many were overwritten
+  private int head;
+  private int size;
+  private int dropped;
+
+  // Creates an empty MazeEventBuffer holding up to the given number of changes
+  MazeEventBuffer(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive");
     }
+    this.indices = new int[capacity];
+    this.kinds = new int[capacity];
+    this.head = 0;
+    this.size = 0;
+    this.dropped = 0;
   }
 
-  //randomly sets the weight of this edge
-  Edge(ATile tile1, ATile tile2) {
-    this.tile1 = tile1;
-    this.tile2 = tile2;
-    this.weight = (int) (Math.random() * 100 * 60);
+  // Records the given change, overwriting the oldest one if this buffer is full
+  public void tileChanged(int index, int kind) {
+    if (this.size == this.indices.length) {
+      this.head = (this.head + 1) % this.indices.length;
+      this.size--;
+      this.dropped++;
+    }
+    int slot = (this.head + this.size) % this.indices.length;
+    this.indices[slot] = index;
+    this.kinds[slot] = kind;
+    this.size++;
   }
 
-  //breaks the wall which this Edge represents
-  void breakEdge() {
-    this.tile1.breakTile(this.tile2);
-    this.tile2.breakTile(this.tile1);
+  //returns how many changes are recorded
+  int size() {
+    return this.size;
   }
 
-  //compares this Edge weight and that Edge weight
-  int compareWeight(Edge that) {
-    return that.compareWeight(this.weight);
+  //returns the index of the tile of the given recorded change, oldest first
+  int indexAt(int i) {
+    return this.indices[this.slot(i)];
   }
 
-  //compares this Edge weight to int thatWeight
-  private int compareWeight(int thatWeight) {
-    return Integer.compare(thatWeight, this.weight);
+  //returns the kind of the given recorded change, oldest first
+  int kindAt(int i) {
+    return this.kinds[this.slot(i)];
   }
 
-  //determines if the ATiles connected by this Edge have the same representatives
-  boolean sameReps(HashMap<ATile, ATile> reps) {
-    return this.tile1.findRep(reps).equals(this.tile2.findRep(reps));
+  //returns how many changes were overwritten before being cleared
+  int dropped() {
+    return this.dropped;
   }
 
-  //sets the representatives of this Edge's ATiles to be the same
-  void unionReps(HashMap<ATile, ATile> reps) {
-    reps.put(this.tile1.findRep(reps), this.tile2.findRep(reps));
+  //forgets every recorded and dropped change
+  void clear() {
+    this.head = 0;
+    this.size = 0;
+    this.dropped = 0;
   }
-}
 
-//represents a comparator which compares Edge weights
-class WeightComparator implements Comparator<Edge> {
-  //determines if Edge e1 has greater or equal weight that Edge e2
-  public int compare(Edge e1, Edge e2) {
-    return e1.compareWeight(e2);
+  //returns the position in the ring of the given recorded change
+  private int slot(int i) {
+    if (i < 0 || i >= this.size) {
+      throw new IndexOutOfBoundsException("Not in the buffer: " + i);
+    }
+    return (this.head + i) % this.indices.length;
   }
 }
 
@@ -737,16 +2637,45 @@ class WeightComparator implements Comparator<Edge> {
 abstract class AMaze {
 
   private final TileUtils utils;
-  private final int height;
-  private final int firstRowWidth;
-  private final ArrayList<Edge> tree;
-  private final ArrayList<ATile> solutionPath;
-  private final ArrayList<ATile> workList;
-  private final ArrayList<ATile> seenList;
+  //the edges of the minimum spanning tree, packed as described in PackedEdges, in the order their
+  //walls are broken. Never mutated; construction walks it with treeCursor instead
+  private final long[] tree;
+  //the tiles of the solution path from the most recent back to the start: the path walked so
+  //far when moving by hand, or the path the last search to finish found. Moving by hand pushes
+  //and pops at the front, so each step is constant time
+  private final IntDeque solutionPath;
+  //the tile each search reached every tile from, or -1 for the start. Only the tiles the current
+  //search has reached are written, so the entries are never cleared
+  private final int[] parents;
+  //the indices of the tiles the dfs and bfs ticks have yet to visit
+  private final IntDeque workList;
+  //which tiles are visiting, visited, or seen by the dfs, bfs and A* ticks, shared by every
+  //tile so that restarting unmarks them all at once
+  private final VisitState visits;
+  //the last tile the current search visited, or -1 if none
+  private int lastSeen;
+  //the tiles the A* tick has reached but not expanded, by estimated total path length, and the
+  //length of the shortest known path to every tile it has reached. Stale after a restart until
+  //the next A* tick starts it over
+  private final IndexedMinHeap frontier;
+  private final int[] pathLengths;
+  private boolean frontierStale;
+  //how many tiles the current search has expanded
+  private int expanded;
+  //the search from both the start and the exit at once. Stale after a restart until the next
+  //bidirectional tick starts it over
+  private final BidirectionalSearch meetInMiddle;
+  private boolean meetInMiddleStale;
   // Protected due to subclasses needing the grid for rendering and the stickLeft algorithm
   protected final ArrayList<ArrayList<ATile>> grid;
-  // protected due to subclasses needing the size for rendering
-  protected final int tileSize;
+  // The walls and neighbors of the tiles in grid, which the tiles are backed by
+  protected final WallGrid walls;
+  // protected due to subclasses needing the size for rendering. Not final because zooming
+  // changes it
+  protected int tileSize;
+  //the sprites the tiles are painted with, which also space them out. Not final because zooming
+  //changes the size of the tiles, and protected because subclasses lay the tiles out by it
+  protected ASpriteAtlas atlas;
   //changes when the maze has been solved
   private boolean hasWon;
   //the x and y positions are changing with the current position,
@@ -756,245 +2685,400 @@ abstract class AMaze {
   // Not final because it starts as true and swaps to false
   // once all the walls have been knocked down
   private boolean inConstruction;
+  // Not final because it advances past each wall of the tree as it is broken
+  private int treeCursor;
+  //the distances of the tiles from the start and exit, cached until a wall is broken
+  private final HeatMap heats;
+  //the walls' changes and the tile the tiles' heats were last assigned from, so assigning the
+  //same heats again is free. heatChanges is -1 until heats are first assigned
+  private int heatChanges;
+  private int heatSource;
+  //the paths between the tiles of the finished maze, built once from the tree
+  private final TreeIndex treeIndex;
+  //the walk of the left-hand wall follower, computed once construction is over and replayed by
+  //the lhs ticks, and how many of its steps have been taken. Null until then
+  private WallFollower wallFollower;
+  private int wallFollowerChanges;
+  private int wallFollowerStep;
   // Not final because the user can choose whether to display heat or paths.
   // Protected because both are needed in subclasses for rendering
   protected boolean heatMode;
   protected boolean showPath;
-  // Not final because the leftHand direction changes as the algorithm rotates.
-  // Protected because needed in subclasses for stickLeft algorithm
-  protected String leftHand;
-
-  // Creates an AMaze of the given size with the given biases, using the provided TileUtils for
-  // calculating row width and generating the appropriate tiles
+  //the image of this maze, kept between frames so that only the tiles that changed since are
+  //repainted. Null until first rendered
+  private ComputedPixelImage raster;
+  //the color of the pixels of the raster no tile covers
+  private static final Color BLANK = new Color(0, 0, 0, 0);
+  //the tiles to repaint before the raster is next shown, each listed once, unless every tile is
+  //to be repainted
+  private final IntDeque dirtyTiles;
+  private final BitSet dirty;
+  private boolean allDirty;
+  //told about every change to the tiles, in the order they happen
+  private final ArrayList<IMazeListener> listeners;
+  //the part of the image that is shown and rendered: its top left corner in the image, and the
+  //most of the image's width and height it shows at once
+  private int viewX;
+  private int viewY;
+  private int viewWidth;
+  private int viewHeight;
+  // Not final because the leftHand direction changes as the algorithm rotates. A direction of
+  // this maze's walls. Protected because needed in subclasses for stickLeft algorithm
+  protected int leftHand;
+
+  // Creates an AMaze of the given size with the given biases, generated from the given seed,
+  // using the provided TileUtils for calculating row width and generating the appropriate tiles
   AMaze(TileUtils utils, int height, int firstRowWidth, int tileSize,
-        boolean vertBias, boolean horzBias) {
+        boolean vertBias, boolean horzBias, long seed) {
     this.utils = utils;
-    this.height = height;
     this.tileSize = tileSize;
-    this.firstRowWidth = firstRowWidth;
+    this.atlas = utils.generateAtlas(tileSize);
+    this.walls = utils.generateWalls(height, firstRowWidth);
+    this.visits = new VisitState(this.walls.size());
     this.grid = this.buildTiles();
-    this.tree = this.buildTree(vertBias, horzBias);
+    //the parallel builder finds the same tree as the sequential one, and small mazes never
+    //leave its sequential base case
+    this.tree = new ParallelKruskalBuilder(this.walls, ForkJoinPool.commonPool(),
+            ParallelKruskalBuilder.DEFAULT_THRESHOLD, seed).buildTree(vertBias, horzBias);
+    this.treeIndex = new TreeIndex(this.walls, this.tree, 0);
+    this.heats = new HeatMap(this.walls);
+    this.heatChanges = -1;
     this.inConstruction = true;
+    this.treeCursor = 0;
     this.grid.get(0).get(0).moveTo();
     this.hasWon = false;
     this.colPos = 0;
     this.rowPos = 0;
-    this.solutionPath = new ArrayList<ATile>();
-    this.solutionPath.add(grid.get(0).get(0));
-    this.workList = new ArrayList<ATile>();
-    this.workList.add(this.grid.get(0).get(0));
-    this.seenList = new ArrayList<ATile>();
+    this.solutionPath = new IntDeque();
+    this.solutionPath.addLast(0);
+    this.parents = new int[this.walls.size()];
+    this.parents[0] = -1;
+    this.workList = new IntDeque();
+    this.workList.addLast(0);
+    this.lastSeen = -1;
+    this.frontier = new IndexedMinHeap(this.walls.size());
+    this.pathLengths = new int[this.walls.size()];
+    this.frontierStale = true;
+    this.expanded = 0;
+    this.meetInMiddle = new BidirectionalSearch(this.walls);
+    this.meetInMiddleStale = false;
     this.heatMode = false;
     this.showPath = true;
-    this.leftHand = "a";
+    this.leftHand = 0;
+    this.dirtyTiles = new IntDeque();
+    this.dirty = new BitSet(this.walls.size());
+    this.allDirty = true;
+    this.listeners = new ArrayList<IMazeListener>();
+    this.viewX = 0;
+    this.viewY = 0;
+    this.viewWidth = Integer.MAX_VALUE;
+    this.viewHeight = Integer.MAX_VALUE;
   }
 
-  //formulates the grid of ATiles which comprise this AMaze, using this.utils to
-  //calculate row widths and generate the appropriate tiles
+  //formulates the grid of ATiles which comprise this AMaze, backed by this.walls, using
+  //this.utils to generate the appropriate tiles
   private ArrayList<ArrayList<ATile>> buildTiles() {
     ArrayList<ArrayList<ATile>> tiles = new ArrayList<ArrayList<ATile>>();
+    int last = this.walls.size() - 1;
     //iterates through the maze's rows
-    for (int row = 0; row < this.height; row++) {
+    for (int row = 0; row < this.walls.rows(); row++) {
       ArrayList<ATile> acc = new ArrayList<ATile>();
-      int width = this.utils.calculateWidth(row, this.firstRowWidth);
       // iterates through the maze's columns and creates Tiles
-      for (int col = 0; col < width; col++) {
+      for (int col = 0; col < this.walls.rowWidth(row); col++) {
+        int index = this.walls.indexOf(row, col);
         ATile tile;
-        if (row == 0 && col == 0) {
-          tile = this.utils.generateTile(new Color(31, 128, 70));
-        } else if (row == this.height - 1 && col == width - 1) {
-          tile = this.utils.generateTile(new Color(106, 34, 128));
+        if (index == 0) {
+          tile = this.utils.generateTile(this.walls, this.visits, index, ITile.START_COLOR);
+        } else if (index == last) {
+          tile = this.utils.generateTile(this.walls, this.visits, index, ITile.EXIT_COLOR);
         } else {
-          tile = this.utils.generateTile();
+          tile = this.utils.generateTile(this.walls, this.visits, index, ITile.TILE_COLOR);
         }
         acc.add(tile);
       }
       tiles.add(acc);
     }
-    // iterates through the mazes rows
-    for (int row = 0; row < this.height; row++) {
-      int width = this.utils.calculateWidth(row, this.firstRowWidth);
-      //iterates through and sets neighbors
-      for (int col = 0; col < width; col++) {
-        ATile t = tiles.get(row).get(col);
-        t.assignNeighbors(tiles, row, col);
-      }
-    }
     return tiles;
   }
 
-  // Returns an ArrayList with all possible edges between tiles in the grid,
-  // with the given weight biases
-  private ArrayList<Edge> getEdges(boolean vertBias, boolean horzBias) {
-    ArrayList<Edge> edges = new ArrayList<Edge>();
-    //iterates through rows
-    for (int row = 0; row < this.height; row++) {
-      int width = this.utils.calculateWidth(row, this.firstRowWidth);
-      //iterates through columns and formulates edges
-      for (int col = 0; col < width; col++) {
-        this.grid.get(row).get(col).appendHalfEdges(edges, vertBias, horzBias);
-      }
-    }
-    return edges;
+  // Returns the tile at the given index of this AMaze's grid
+  ATile tileAt(int index) {
+    return this.grid.get(this.walls.rowOf(index)).get(this.walls.colOf(index));
   }
 
-  //uses Kruskal's algorithm to gather the edges in the minimum spanning tree (maze)
-  private ArrayList<Edge> buildTree(boolean vertBias, boolean horzBias) {
-    ArrayList<Edge> edges = this.getEdges(vertBias, horzBias);
-    Collections.sort(edges, new WeightComparator());
-    ArrayList<Edge> edgesInTree = new ArrayList<Edge>();
+  //breaks the first wall in the MST that has not been broken yet
+  void breakFirstWall() {
+    this.breakWalls(1);
+  }
 
-    HashMap<ATile, ATile> representatives = new HashMap<ATile, ATile>();
-    //iterates through and sets HexTile representatives to themselves
-    for (ArrayList<ATile> row : this.grid) {
-      for (ATile t : row) {
-        representatives.put(t, t);
-      }
+  //breaks up to the given number of the MST's unbroken walls, in order, and returns how many
+  //were broken
+  int breakWalls(int count) {
+    int broken = Math.min(count, this.wallsRemaining());
+    //breaks each wall up to the new cursor position
+    for (int i = 0; i < broken; i++) {
+      long edge = this.tree[this.treeCursor];
+      this.walls.breakPackedEdge(edge);
+      this.changed(PackedEdges.tileIndex(edge), IMazeListener.WALL_BROKEN);
+      this.changed(this.walls.neighbor(PackedEdges.tileIndex(edge),
+              this.walls.halfEdgeDirection(PackedEdges.slot(edge))), IMazeListener.WALL_BROKEN);
+      this.treeCursor++;
     }
-    //Iterates through all of the edges and checks their representatives to create the MST
-    while (!edges.isEmpty()) {
-      Edge currEdge = edges.remove(0);
-      if (!currEdge.sameReps(representatives)) {
-        edgesInTree.add(currEdge);
-        currEdge.unionReps(representatives);
-      }
-    }
-
-    return edgesInTree;
+    return broken;
   }
 
-  //breaks the first wall in the MST
-  void breakFirstWall() {
-    if (!this.tree.isEmpty()) {
-      this.tree.remove(0).breakEdge();
-    }
+  //returns how many of the MST's walls have not been broken yet
+  int wallsRemaining() {
+    return this.tree.length - this.treeCursor;
   }
 
-  // Finds the solution path for this AMaze
+  // Finds the solution path for this AMaze from its tree index, once the maze is constructed
   void findPath() {
-    // Iterates through until the solution path is found
-    while (!this.won()) {
-      this.stickLeftTick();
+    int[] path = this.treeIndex.path(0, this.walls.size() - 1);
+    this.solutionPath.clear();
+    //the path is kept from the most recent tile, the exit, back to the start
+    for (int i = path.length - 1; i >= 0; i--) {
+      this.solutionPath.addLast(path[i]);
     }
     this.restart();
   }
 
+  // Returns the index of the paths between the tiles of this AMaze rooted at the start, which
+  // describes the finished maze even while it is in construction
+  TreeIndex treeIndex() {
+    return this.treeIndex;
+  }
+
   //displays the path from start to end of this AMaze
   void showSolutionPath() {
-    //iterates through the solutionPath ArrayList
-    for (ATile t : this.solutionPath) {
-      t.moveTo();
+    //iterates through the tiles of solutionPath
+    for (int i = 0; i < this.solutionPath.size(); i++) {
+      this.moveTo(this.solutionPath.get(i));
     }
   }
 
   //One tick of traversal of this AMaze, depth first
   void dfsTick() {
-    if (!this.workList.isEmpty()) {
-      ATile curr = this.workList.remove(0);
-      if (curr == this.grid.get(this.grid.size() - 1)
-              .get(this.grid.get(this.grid.size() - 1).size() - 1)) {
-        this.hasWon = true;
-        curr.moveTo();
-        if (!this.seenList.isEmpty()) {
-          this.seenList.get(0).moveFrom();
-        }
-      } else if (this.seenList.contains(curr)) {
-        this.dfsTick();
-      } else {
-        curr.moveTo();
-        if (!this.seenList.isEmpty()) {
-          this.seenList.get(0).moveFrom();
+    int curr = this.nextUnseen();
+    if (curr != -1 && this.visit(curr)) {
+      int open = this.walls.openDirections(curr);
+      //pushes the unseen accessible neighbors of curr onto the head of worklist, in search order
+      for (int dir : this.walls.searchOrder()) {
+        int neighbor = (open & 1 << dir) != 0 ? this.walls.neighbor(curr, dir) : -1;
+        if (neighbor != -1 && !this.visits.seen(neighbor)) {
+          this.parents[neighbor] = curr;
+          this.workList.addFirst(neighbor);
         }
-        //traverses the accessible neighbors of curr and adds them to the head of worklist
-        for (ATile neighbor : curr.accessibleNeighbors()) {
-          this.workList.add(0, neighbor);
-        }
-        this.seenList.add(0, curr);
       }
     }
   }
 
   //One tick of traversal of this AMaze, breadth first
   void bfsTick() {
-    if (!this.workList.isEmpty()) {
-      ATile curr = this.workList.remove(0);
-      if (curr == this.grid.get(this.grid.size() - 1)
-              .get(this.grid.get(this.grid.size() - 1).size() - 1)) {
-        this.hasWon = true;
-        curr.moveTo();
-        if (!this.seenList.isEmpty()) {
-          this.seenList.get(0).moveFrom();
+    int curr = this.nextUnseen();
+    if (curr != -1 && this.visit(curr)) {
+      int open = this.walls.openDirections(curr);
+      int[] order = this.walls.searchOrder();
+      //adds the unseen accessible neighbors of curr to the tail of worklist, in reverse search
+      //order
+      for (int i = order.length - 1; i >= 0; i--) {
+        int neighbor = (open & 1 << order[i]) != 0 ? this.walls.neighbor(curr, order[i]) : -1;
+        if (neighbor != -1 && !this.visits.seen(neighbor)) {
+          this.parents[neighbor] = curr;
+          this.workList.addLast(neighbor);
         }
-      } else if (this.seenList.contains(curr)) {
-        this.bfsTick();
-      } else {
-        curr.moveTo();
-        if (!this.seenList.isEmpty()) {
-          this.seenList.get(0).moveFrom();
+      }
+    }
+  }
+
+  //One tick of traversal of this AMaze with A*, expanding the tile with the shortest estimated
+  //path to the exit through it
+  void aStarTick() {
+    if (this.frontierStale) {
+      this.frontier.clear();
+      this.pathLengths[0] = 0;
+      this.frontier.insertOrDecrease(0, this.walls.distanceEstimate(0, this.walls.size() - 1));
+      this.frontierStale = false;
+    }
+    if (!this.frontier.isEmpty()) {
+      int curr = this.frontier.removeMin();
+      if (this.visit(curr)) {
+        int exit = this.walls.size() - 1;
+        //reaches the unexpanded accessible neighbors, keeping the shortest path to each
+        for (int open = this.walls.openDirections(curr); open != 0; open &= open - 1) {
+          int neighbor = this.walls.neighbor(curr, Integer.numberOfTrailingZeros(open));
+          if (!this.visits.seen(neighbor)
+                  && (!this.frontier.contains(neighbor)
+                  || this.pathLengths[curr] + 1 < this.pathLengths[neighbor])) {
+            this.pathLengths[neighbor] = this.pathLengths[curr] + 1;
+            this.parents[neighbor] = curr;
+            this.frontier.insertOrDecrease(neighbor,
+                    this.pathLengths[neighbor] + this.walls.distanceEstimate(neighbor, exit));
+          }
+        }
+      }
+    }
+  }
+
+  //One tick of traversal of this AMaze breadth first from both the start and the exit, taking
+  //turns. Once the two sides meet, the solution path runs through the tile where they did
+  void bidirectionalTick() {
+    if (this.meetInMiddleStale) {
+      this.meetInMiddle.reset();
+      this.meetInMiddleStale = false;
+    }
+    if (!this.hasWon && !this.meetInMiddle.exhausted()) {
+      int before = this.meetInMiddle.expandedCount();
+      boolean met = this.meetInMiddle.step();
+      //a single tile maze meets without expanding anything
+      if (this.meetInMiddle.expandedCount() > before) {
+        this.expanded++;
+        this.moveTo(this.meetInMiddle.lastExpanded());
+        if (this.lastSeen != -1) {
+          this.moveFrom(this.lastSeen);
         }
-        //traverses the accessible neighbors of curr and adds them to the tail of worklist
-        for (int i = curr.accessibleNeighbors().size() - 1; i >= 0; i--) {
-          ATile neighbor = curr.accessibleNeighbors().get(i);
-          this.workList.add(neighbor);
+        this.lastSeen = this.meetInMiddle.lastExpanded();
+      }
+      if (met) {
+        this.hasWon = true;
+        this.solutionPath.clear();
+        int[] path = this.meetInMiddle.path();
+        //the path is kept from the most recent tile, the exit, back to the start
+        for (int i = path.length - 1; i >= 0; i--) {
+          this.solutionPath.addLast(path[i]);
         }
-        this.seenList.add(0, curr);
       }
     }
   }
 
+  //traverses this maze by sticking to the leftHand wall, taking the next step of the wall
+  //follower's walk
+  void stickLeftTick() {
+    WallFollower follower = this.wallFollower();
+    if (this.wallFollowerStep < follower.steps()) {
+      this.move(follower.moveAt(this.wallFollowerStep));
+      this.leftHand = follower.handAfter(this.wallFollowerStep, this.walls.directions());
+      this.wallFollowerStep++;
+    }
+  }
+
+  //restarts this maze and replays the wall follower's walk up to the given step
+  void seekLeftHand(int step) {
+    this.restart();
+    //replays the steps so the tiles along the way are marked visited
+    while (this.wallFollowerStep < Math.min(step, this.wallFollower().steps())) {
+      this.stickLeftTick();
+    }
+  }
+
+  // Returns the walk of the left-hand wall follower through this AMaze, computing it only when
+  // it is first needed after construction
+  WallFollower wallFollower() {
+    if (this.wallFollower == null || this.wallFollowerChanges != this.walls.changes()) {
+      this.wallFollower = new WallFollower(this.walls);
+      this.wallFollowerChanges = this.walls.changes();
+    }
+    return this.wallFollower;
+  }
+
+  //returns how many tiles the dfs, bfs, A* or bidirectional search has expanded since the last
+  //restart
+  int expandedCount() {
+    return this.expanded;
+  }
+
+  //removes tiles from the head of worklist until one has not been seen, returning it, or -1 if
+  //worklist runs out
+  private int nextUnseen() {
+    //skips the tiles that were reached more than once before being visited
+    while (!this.workList.isEmpty()) {
+      int curr = this.workList.removeFirst();
+      if (!this.visits.seen(curr)) {
+        return curr;
+      }
+    }
+    return -1;
+  }
+
+  //moves the dfs or bfs traversal onto the given tile, winning if it is the exit. Returns
+  //whether the traversal should carry on from it
+  private boolean visit(int curr) {
+    this.expanded++;
+    this.moveTo(curr);
+    if (this.lastSeen != -1) {
+      this.moveFrom(this.lastSeen);
+    }
+    if (curr == this.walls.size() - 1) {
+      this.hasWon = true;
+      this.traceParents(curr);
+      return false;
+    }
+    this.visits.see(curr);
+    this.lastSeen = curr;
+    return true;
+  }
+
+  //returns the tiles of the solution path from the start to the most recent tile
+  int[] solution() {
+    int[] path = new int[this.solutionPath.size()];
+    //reverses solutionPath, which is kept from the most recent tile back
+    for (int i = 0; i < path.length; i++) {
+      path[i] = this.solutionPath.get(path.length - 1 - i);
+    }
+    return path;
+  }
+
+  //replaces solutionPath with the path the current search took to the given tile, following
+  //the parents back to the start
+  private void traceParents(int tile) {
+    this.solutionPath.clear();
+    //walks back one parent at a time until the start, whose parent is -1
+    for (int curr = tile; curr != -1; curr = this.parents[curr]) {
+      this.solutionPath.addLast(curr);
+    }
+  }
+
   //Assigns each tiles "heat" (distance from either entrance or exit)
   void assignHeats(boolean startFromExit) {
-    ATile startTile;
-    if (startFromExit) {
-      startTile = this.grid.get(this.height - 1).get(this.firstRowWidth - 1);
-    } else {
-      startTile = this.grid.get(0).get(0);
-    }
-    HashMap<ATile, Integer> heatMap = new HashMap<ATile, Integer>();
-    heatMap.put(startTile, 0);
-    int maxHeat = 0;
-    ArrayList<ATile> heatWorkList = new ArrayList<ATile>();
-    heatWorkList.add(startTile);
-    ArrayList<ATile> heatSeenList = new ArrayList<ATile>();
-    //continues traversing until we have accessed every tile
-    while (!heatWorkList.isEmpty()) {
-      ATile curr = heatWorkList.remove(0);
-      if (!heatSeenList.contains(curr)) {
-        //adds all accessible neighbors to the tail of the worklist
-        for (int i = curr.accessibleNeighbors().size() - 1; i >= 0; i--) {
-          ATile neighbor = curr.accessibleNeighbors().get(i);
-          if (!heatSeenList.contains(neighbor)) {
-            heatWorkList.add(neighbor);
-            heatMap.put(neighbor, heatMap.get(curr) + 1);
-          }
-        }
-        maxHeat = heatMap.get(curr);
-        heatSeenList.add(0, curr);
-      }
+    this.assignHeatsFrom(startFromExit ? this.walls.size() - 1 : 0);
+  }
+
+  //Assigns each tiles "heat" (distance from the tile at the given index)
+  void assignHeatsFrom(int source) {
+    if (this.heatChanges == this.walls.changes() && this.heatSource == source) {
+      //the tiles already hold these heats
+      return;
     }
+    int[] distances = this.heats.distancesFrom(source);
+    int maxHeat = this.heats.maxDistanceFrom(source);
     // Iterate through every tile in the grid and set the appropriate heat
     for (ArrayList<ATile> row : this.grid) {
       for (ATile tile : row) {
-        int blueValue = (int) (255.0 * heatMap.get(tile) / maxHeat);
-        int redValue = 255 - blueValue;
-        tile.setHeat(new Color(redValue, 0, blueValue));
+        //tiles that cannot be reached yet count as the farthest
+        int heat = distances[tile.index] == -1 ? maxHeat : distances[tile.index];
+        tile.setHeat(HeatGradient.level(heat, maxHeat));
       }
     }
+    this.changed(-1, IMazeListener.HEAT);
+    this.heatChanges = this.walls.changes();
+    this.heatSource = source;
   }
 
   // Toggles whether to display all visited tiles
   void togglePath() {
     this.showPath = !this.showPath;
+    this.changed(-1, IMazeListener.DISPLAY);
   }
 
   // Toggles whether to display tiles heat
   void toggleHeat() {
     this.heatMode = !this.heatMode;
+    this.changed(-1, IMazeListener.DISPLAY);
   }
 
   // Checks and returns if this maze is still being constructed
   boolean inConstruction() {
-    this.inConstruction = this.inConstruction && !this.tree.isEmpty();
+    this.inConstruction = this.inConstruction && this.wallsRemaining() > 0;
     return this.inConstruction;
   }
 
@@ -1005,345 +3089,440 @@ abstract class AMaze {
     return this.hasWon;
   }
 
-  // Resets this maze so that it can be solved again
+  // Resets this maze so that it can be solved again, in constant time: every tile is unmarked
+  // at once by a new epoch of visits, and the A* and bidirectional searches start over when
+  // next ticked
   void restart() {
     this.colPos = 0;
     this.rowPos = 0;
     this.workList.clear();
-    this.seenList.clear();
-    this.leftHand = "a";
+    this.visits.reset();
+    this.lastSeen = -1;
+    this.frontierStale = true;
+    this.expanded = 0;
+    this.meetInMiddleStale = true;
+    this.wallFollowerStep = 0;
+    this.leftHand = 0;
     this.hasWon = false;
-    // Iterates through every tile in the grid
-    for (ArrayList<ATile> row : this.grid) {
-      for (ATile tile : row) {
-        tile.resetVistStatus();
-      }
-    }
-    this.workList.add(this.grid.get(0).get(0));
-    this.grid.get(0).get(0).moveTo();
+    this.workList.addLast(0);
+    this.changed(-1, IMazeListener.RESET);
+    this.moveTo(0);
   }
 
-  //Moves from the current position in the given direction if possible, by the given amounts
-  void move(String dir, int dcol, int drow) {
-    if (this.grid.get(this.rowPos).get(this.colPos).canMove(dir)) {
-      ATile oldTile = this.grid.get(this.rowPos).get(this.colPos);
-      this.colPos += dcol;
-      this.rowPos += drow;
-      ATile newTile = this.grid.get(this.rowPos).get(this.colPos);
-      oldTile.moveFrom();
-      newTile.moveTo();
-      if (this.solutionPath.size() > 1 && this.solutionPath.get(1).equals(newTile)) {
-        this.solutionPath.remove(0);
+  //Moves from the current position in the given direction of this maze's walls, if possible
+  void move(int dir) {
+    int curr = this.walls.indexOf(this.rowPos, this.colPos);
+    if (this.walls.canMove(curr, dir)) {
+      int next = this.walls.neighbor(curr, dir);
+      this.rowPos = this.walls.rowOf(next);
+      this.colPos = this.walls.colOf(next);
+      this.moveFrom(curr);
+      this.moveTo(next);
+      //stepping back onto the previous tile of the path takes the last step back off it
+      if (this.solutionPath.size() > 1 && this.solutionPath.get(1) == next) {
+        this.solutionPath.removeFirst();
       } else {
-        this.solutionPath.add(0, newTile);
+        this.solutionPath.addFirst(next);
       }
     }
   }
 
-  //moves from the current tile in a given direction, if possible
-  abstract void move(String s);
+  //marks the given tile as being processed, telling the listeners unless it already was
+  private void moveTo(int index) {
+    if (!this.visits.visiting(index)) {
+      this.tileAt(index).moveTo();
+      this.changed(index, IMazeListener.VISITING);
+    }
+  }
+
+  //marks the given tile as processed, telling the listeners unless it already was
+  private void moveFrom(int index) {
+    if (this.visits.visiting(index) || !this.visits.visited(index)) {
+      this.tileAt(index).moveFrom();
+      this.changed(index, IMazeListener.VISITED);
+    }
+  }
 
-  //Renders this AMaze as a WorldImage
-  abstract WorldImage render();
+  //lists the given tile to be repainted, or every tile if -1, and tells the listeners it changed
+  //in the given way
+  private void changed(int index, int kind) {
+    if (index == -1) {
+      this.allDirty = true;
+    } else {
+      this.markDirty(index);
+    }
+    //counts through the listeners, as an iterator would be allocated for every change
+    for (int i = 0; i < this.listeners.size(); i++) {
+      this.listeners.get(i).tileChanged(index, kind);
+    }
+  }
 
-  //traverses this maze by sticking to the leftHand wall
-  abstract void stickLeftTick();
-}
+  // Tells the given listener about every change to the tiles of this AMaze from now on
+  void addListener(IMazeListener listener) {
+    this.listeners.add(listener);
+  }
 
-//represents a Rectangle-shaped maze consisting of RectTiles
-class RectMaze extends AMaze {
+  // Stops telling the given listener about changes to the tiles of this AMaze
+  void removeListener(IMazeListener listener) {
+    this.listeners.remove(listener);
+  }
 
-  // Creates a RectMaze of the given dimensions and size, with the given biases towards edges
-  RectMaze(int width, int height, int tileSize, boolean vertBias, boolean horzBias) {
-    super(new RectUtils(), height, width, tileSize, vertBias, horzBias);
-    if (width > 100 || width < 1) {
-      throw new IllegalArgumentException("Width must be between 1 and 100");
-    }
-    if (height > 60 || height < 1) {
-      throw new IllegalArgumentException("Height must be between 1 and 60");
+  //moves from the current tile in the direction of the given key, if possible
+  void move(String key) {
+    int dir = this.walls.directionOf(key);
+    if (dir != -1) {
+      this.move(dir);
     }
   }
 
-  //renders this RectMaze as a WorldImage
+  //returns the index of the tile drawn at the given position of this AMaze's image, or -1 if
+  //there is none there
+  abstract int tileAtPosition(double x, double y);
+
+  //Renders the view of this AMaze as a WorldImage: a raster kept between frames, in which only
+  //the tiles that changed since the last frame are repainted
   WorldImage render() {
-    WorldImage img = new EmptyImage();
-    //iterates through the rows in this RectMaze's grid
-    for (ArrayList<ATile> row : this.grid) {
-      WorldImage rowImg = new EmptyImage();
-      //iterates through all the tiles in the row
-      for (ATile t : row) {
-        rowImg = new BesideImage(rowImg, t.render(this.tileSize, this.heatMode, this.showPath));
-      }
-      img = new AboveImage(img, rowImg);
+    if (this.raster == null) {
+      this.raster = new ComputedPixelImage(this.viewWidth(), this.viewHeight());
+      this.allDirty = true;
     }
-    return img;
+    if (this.allDirty) {
+      //repaints every tile in view, so the ones listed need not be repainted again
+      this.forEachTileIn(this.viewX, this.viewY, this.viewX + this.viewWidth(),
+              this.viewY + this.viewHeight(), this::paintTile);
+      this.dirtyTiles.clear();
+      this.dirty.clear();
+      this.allDirty = false;
+    }
+    //repaints the tiles that changed
+    while (!this.dirtyTiles.isEmpty()) {
+      int index = this.dirtyTiles.removeFirst();
+      this.dirty.clear(index);
+      this.paintTile(index);
+    }
+    return this.raster;
   }
 
-  //moves the current position to a given adjacent and accessible position
-  void move(String s) {
-    int dcol = 0;
-    int drow = 0;
-    boolean validDirection;
-    switch (s) {
-      case "w":
-      case "up":
-        validDirection = true;
-        drow--;
-        break;
-      case "s":
-      case "down":
-        validDirection = true;
-        drow++;
-        break;
-      case "d":
-      case "right":
-        validDirection = true;
-        dcol++;
-        break;
-      case "a":
-      case "left":
-        validDirection = true;
-        dcol--;
-        break;
-      default:
-        validDirection = false;
-        break;
+  //lists the given tile to be repainted before the raster is next shown, unless it already is
+  private void markDirty(int index) {
+    if (!this.allDirty && !this.dirty.get(index)) {
+      this.dirty.set(index);
+      this.dirtyTiles.addLast(index);
     }
-    if (validDirection) {
-      this.move(s, dcol, drow);
+  }
+
+  //paints the given tile into the raster, unless it is out of view. No tile reaches as far as
+  //twice tileSize from its center
+  private void paintTile(int index) {
+    double centerX = this.tileCenterX(index) - this.viewX;
+    double centerY = this.tileCenterY(index) - this.viewY;
+    int reach = 2 * this.tileSize;
+    if (centerX + reach > 0 && centerX - reach < this.viewWidth()
+            && centerY + reach > 0 && centerY - reach < this.viewHeight()) {
+      this.tileAt(index).paint(this.raster, this.atlas, centerX, centerY, this.heatMode,
+              this.showPath);
     }
   }
 
+  //shows at most the given width and height of this AMaze's image at once, in pixels
+  void setView(int width, int height) {
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException("View must be at least one pixel wide and tall");
+    }
+    this.viewWidth = width;
+    this.viewHeight = height;
+    this.raster = null;
+    this.moveView(this.viewX, this.viewY);
+  }
 
-  //traverses this RectMaze by sticking to the leftHand wall
-  void stickLeftTick() {
-    ATile currTile = this.grid.get(this.rowPos).get(this.colPos);
-    if (currTile.canMove(this.leftHand)) {
-      this.move(this.leftHand);
-      this.rotateLeft();
-    } else {
-      this.rotateRight();
-      this.stickLeftTick();
+  //moves the view the given distance across this AMaze's image, stopping at its edges
+  void pan(int dx, int dy) {
+    this.moveView(this.viewX + dx, this.viewY + dy);
+  }
+
+  //draws the tiles of this AMaze in the given size, keeping the middle of the view over the
+  //same part of the maze
+  void zoom(int tileSize) {
+    if (tileSize < 1) {
+      throw new IllegalArgumentException("Tile size must be positive");
     }
+    double middleX = (this.viewX + this.viewWidth() / 2.0) / this.imageWidth();
+    double middleY = (this.viewY + this.viewHeight() / 2.0) / this.imageHeight();
+    this.resize(tileSize);
+    this.moveView((int) Math.round(middleX * this.imageWidth() - this.viewWidth() / 2.0),
+            (int) Math.round(middleY * this.imageHeight() - this.viewHeight() / 2.0));
   }
 
-  // Rotates the current leftHand direction to the left
-  private void rotateLeft() {
-    switch (this.leftHand) {
-      case "a":
-        this.leftHand = "s";
-        break;
-      case "s":
-        this.leftHand = "d";
-        break;
-      case "d":
-        this.leftHand = "w";
-        break;
-      case "w":
-        this.leftHand = "a";
-        break;
-      default:
-        throw new IllegalArgumentException("Invalid direction: " + this.leftHand);
+  //sets the size the tiles of this AMaze are drawn in, along with the atlas they are drawn from,
+  //and starts the raster over
+  private void resize(int tileSize) {
+    this.tileSize = tileSize;
+    this.atlas = this.utils.generateAtlas(tileSize);
+    this.raster = null;
+  }
+
+  //moves the top left corner of the view to the given position of this AMaze's image, or as
+  //close as it can be with the view inside the image, shifting the raster along with it
+  private void moveView(int x, int y) {
+    int oldX = this.viewX;
+    int oldY = this.viewY;
+    this.viewX = Math.max(0, Math.min(x, this.imageWidth() - this.viewWidth()));
+    this.viewY = Math.max(0, Math.min(y, this.imageHeight() - this.viewHeight()));
+    if (this.raster != null) {
+      this.shiftRaster(oldX - this.viewX, oldY - this.viewY);
     }
   }
 
-  // Rotates the current leftHand direction to the right
-  private void rotateRight() {
-    switch (this.leftHand) {
-      case "a":
-        this.leftHand = "w";
-        break;
-      case "s":
-        this.leftHand = "a";
-        break;
-      case "d":
-        this.leftHand = "s";
-        break;
-      case "w":
-        this.leftHand = "d";
-        break;
-      default:
-        throw new IllegalArgumentException("Invalid direction: " + this.leftHand);
+  //moves the pixels of the raster the given distance across it, blanking the strips this
+  //uncovers and listing the tiles drawn in them to be repainted. Starts the raster over if
+  //none of it stays in view
+  private void shiftRaster(int dx, int dy) {
+    int width = this.viewWidth();
+    int height = this.viewHeight();
+    if (Math.abs(dx) >= width || Math.abs(dy) >= height) {
+      this.raster = null;
+      return;
+    }
+    //copies the pixels that stay in view, from the side the raster moves towards, so none is
+    //overwritten before it is copied
+    for (int i = 0; i < height - Math.abs(dy); i++) {
+      int y = dy > 0 ? height - 1 - i : i;
+      for (int j = 0; j < width - Math.abs(dx); j++) {
+        int x = dx > 0 ? width - 1 - j : j;
+        this.raster.setPixel(x, y, this.raster.getPixel(x - dx, y - dy));
+      }
+    }
+    if (dx != 0) {
+      int left = dx > 0 ? 0 : width + dx;
+      this.blankStrip(left, 0, left + Math.abs(dx), height);
+    }
+    if (dy != 0) {
+      int top = dy > 0 ? 0 : height + dy;
+      this.blankStrip(0, top, width, top + Math.abs(dy));
+    }
+  }
+
+  //blanks the given bounds of the raster and lists the tiles drawn in them to be repainted
+  private void blankStrip(int left, int top, int right, int bottom) {
+    //blanks the rows of the strip
+    for (int y = top; y < bottom; y++) {
+      //blanks the pixels of the row
+      for (int x = left; x < right; x++) {
+        this.raster.setPixel(x, y, BLANK);
+      }
+    }
+    this.forEachTileIn(this.viewX + left, this.viewY + top, this.viewX + right,
+            this.viewY + bottom, this::markDirty);
+  }
+
+  //returns the horizontal position of the left of the view in this AMaze's image
+  int viewX() {
+    return this.viewX;
+  }
+
+  //returns the vertical position of the top of the view in this AMaze's image
+  int viewY() {
+    return this.viewY;
+  }
+
+  //returns the width of the view in pixels, which is no more than the image's
+  int viewWidth() {
+    return Math.min(this.viewWidth, this.imageWidth());
+  }
+
+  //returns the height of the view in pixels, which is no more than the image's
+  int viewHeight() {
+    return Math.min(this.viewHeight, this.imageHeight());
+  }
+
+  //calls the given action on the index of every tile drawn within the given bounds of this
+  //AMaze's image, and possibly some tiles around them, but not every tile unless the bounds
+  //cover most of the image
+  abstract void forEachTileIn(int left, int top, int right, int bottom, IntConsumer action);
+
+  //returns the width of this AMaze's image in pixels
+  abstract int imageWidth();
+
+  //returns the height of this AMaze's image in pixels
+  abstract int imageHeight();
+
+  //returns the horizontal position of the center of the given tile in this AMaze's image
+  abstract double tileCenterX(int index);
+
+  //returns the vertical position of the center of the given tile in this AMaze's image
+  abstract double tileCenterY(int index);
+}
+
+//represents a Rectangle-shaped maze consisting of RectTiles
+class RectMaze extends AMaze {
+
+  // Creates a RectMaze of the given dimensions and size, with the given biases towards edges,
+  // generated from the given seed
+  RectMaze(int width, int height, int tileSize, boolean vertBias, boolean horzBias, long seed) {
+    super(new RectUtils(), checkDimension("Height", height), checkDimension("Width", width),
+            tileSize, vertBias, horzBias, seed);
+  }
+
+  // Creates a RectMaze of the given dimensions and size, with the given biases towards edges
+  RectMaze(int width, int height, int tileSize, boolean vertBias, boolean horzBias) {
+    this(width, height, tileSize, vertBias, horzBias, new SplittableRandom().nextLong());
+  }
+
+  //returns the given width or height, checked before any of the maze is built
+  private static int checkDimension(String name, int value) {
+    if (value > 1000 || value < 1) {
+      throw new IllegalArgumentException(name + " must be between 1 and 1000");
     }
+    return value;
   }
 
+  //RectTiles are tileSize wide, side by side
+  int imageWidth() {
+    return this.walls.rowWidth(0) * this.tileSize;
+  }
+
+  //RectTiles are tileSize tall, one row above the next
+  int imageHeight() {
+    return this.walls.rows() * this.tileSize;
+  }
+
+  //the middle of the tile's column
+  double tileCenterX(int index) {
+    return (this.walls.colOf(index) + 0.5) * this.tileSize;
+  }
+
+  //the middle of the tile's row
+  double tileCenterY(int index) {
+    return (this.walls.rowOf(index) + 0.5) * this.tileSize;
+  }
+
+  //returns the index of the tile drawn at the given position of this RectMaze's image, or -1 if
+  //there is none there
+  int tileAtPosition(double x, double y) {
+    int col = (int) Math.floor(x / this.tileSize);
+    int row = (int) Math.floor(y / this.tileSize);
+    if (row < 0 || row >= this.walls.rows() || col < 0 || col >= this.walls.rowWidth(row)) {
+      return -1;
+    }
+    return this.walls.indexOf(row, col);
+  }
+
+  //calls the given action on the tiles of the rows and columns the given bounds cross
+  void forEachTileIn(int left, int top, int right, int bottom, IntConsumer action) {
+    int firstRow = Math.max(0, top / this.tileSize);
+    int lastRow = Math.min(this.walls.rows() - 1, (bottom - 1) / this.tileSize);
+    int firstCol = Math.max(0, left / this.tileSize);
+    int lastCol = Math.min(this.walls.rowWidth(0) - 1, (right - 1) / this.tileSize);
+    //iterates through the rows in bounds
+    for (int row = firstRow; row <= lastRow; row++) {
+      //iterates through the columns in bounds
+      for (int col = firstCol; col <= lastCol; col++) {
+        action.accept(this.walls.indexOf(row, col));
+      }
+    }
+  }
 }
 
 //represents a regular Hexagon-shaped maze consisting of HexTiles
 class HexMaze extends AMaze {
   private final int sideLength;
 
-  HexMaze(int sideLength, int tileSize, boolean vertBias, boolean horzBias) {
-    super(new HexUtils(), sideLength * 2 - 1, sideLength, tileSize, vertBias, horzBias);
-    if (sideLength > 25 || sideLength < 1) {
-      throw new IllegalArgumentException("Sidelength must be between 1 and 23");
-    }
+  // Creates a HexMaze of the given side length and size, with the given biases towards edges,
+  // generated from the given seed
+  HexMaze(int sideLength, int tileSize, boolean vertBias, boolean horzBias, long seed) {
+    super(new HexUtils(), checkSideLength(sideLength) * 2 - 1, sideLength, tileSize, vertBias,
+            horzBias, seed);
     this.sideLength = sideLength;
   }
 
-  //renders this HexMaze as a WorldImage
-  WorldImage render() {
-    WorldImage img = new EmptyImage();
-    //iterates through and draws the tiles in the first row
-    for (ATile t : this.grid.get(0)) {
-      img = new BesideImage(img, t.render(this.tileSize, this.heatMode, this.showPath));
-    }
-    //iterates through and draws each row of the grid, adding it to the overall image
-    for (int row = 1; row < this.grid.size(); row++) {
-      WorldImage rowImg = new EmptyImage();
-      ArrayList<ATile> rowTiles = this.grid.get(row);
-      // Iterates through and draws the tiles in the row
-      for (ATile t : rowTiles) {
-        rowImg = new BesideImage(rowImg, t.render(this.tileSize, this.heatMode, this.showPath));
-      }
-      double currHeight = img.getHeight();
-      double nextHeight = currHeight + 1.5 * this.tileSize;
-      double shift = nextHeight - (currHeight / 2) - (rowImg.getHeight() / 2);
-      img = new OverlayOffsetImage(img, 0, shift - 1, rowImg);
-    }
-    return img;
-  }
-
-  //moves the current position to a given accessible position
-  void move(String s) {
-    int drow = 0;
-    int dcol = 0;
-    boolean validDirection;
-    int maxRows = this.sideLength * 2 - 1;
-    int maxCols;
-    if (this.rowPos < this.sideLength) {
-      maxCols = this.sideLength + rowPos;
-    } else {
-      maxCols = 3 * this.sideLength - 2 - rowPos;
-    }
-    switch (s) {
-      case "a":
-        validDirection = true;
-        dcol--;
-        break;
-      case "d":
-        validDirection = true;
-        dcol++;
-        break;
-      case "e":
-        validDirection = true;
-        if (this.rowPos != 0 &&
-                (this.colPos != maxCols - 1 || this.rowPos >= this.sideLength)) {
-          if (this.rowPos < this.sideLength) {
-            drow--;
-          } else {
-            drow--;
-            dcol++;
-          }
-        }
-        break;
-      case "x":
-        validDirection = true;
-        if (this.rowPos != maxRows - 1 &&
-                (this.colPos != maxCols - 1 || this.rowPos < this.sideLength - 1)) {
-          if (this.rowPos >= this.sideLength - 1) {
-            drow++;
-          } else {
-            drow++;
-            dcol++;
-          }
-        }
-        break;
-      case "w":
-        validDirection = true;
-        if (this.rowPos != 0 &&
-                (this.colPos != 0 || this.rowPos >= this.sideLength)) {
-          if (this.rowPos < this.sideLength) {
-            drow--;
-            dcol--;
-          } else {
-            drow--;
-          }
-        }
-        break;
-      case "z":
-        validDirection = true;
-        if (this.rowPos != maxRows - 1 &&
-                (this.colPos != 0 || this.rowPos < this.sideLength - 1)) {
-          if (this.rowPos >= this.sideLength - 1) {
-            drow++;
-            dcol--;
-          } else {
-            drow++;
-          }
-        }
-        break;
-      default:
-        validDirection = false;
-        break;
-    }
-    if (validDirection) {
-      this.move(s, dcol, drow);
-    }
+  HexMaze(int sideLength, int tileSize, boolean vertBias, boolean horzBias) {
+    this(sideLength, tileSize, vertBias, horzBias, new SplittableRandom().nextLong());
   }
 
-  //traverses this HexMaze by sticking to the leftHand wall
-  void stickLeftTick() {
-    ATile currTile = this.grid.get(this.rowPos).get(this.colPos);
-    if (currTile.canMove(this.leftHand)) {
-      this.move(this.leftHand);
-      this.rotateLeft();
-      this.rotateLeft();
-    } else {
-      this.rotateRight();
-      this.stickLeftTick();
+  //returns the given side length, checked before any of the maze is built
+  private static int checkSideLength(int sideLength) {
+    if (sideLength > 500 || sideLength < 1) {
+      throw new IllegalArgumentException("Sidelength must be between 1 and 500");
     }
+    return sideLength;
   }
 
-  // Rotates the current leftHand direction to the left
-  private void rotateLeft() {
-    switch (this.leftHand) {
-      case "a":
-        this.leftHand = "z";
-        break;
-      case "z":
-        this.leftHand = "x";
-        break;
-      case "x":
-        this.leftHand = "d";
-        break;
-      case "d":
-        this.leftHand = "e";
-        break;
-      case "e":
-        this.leftHand = "w";
-        break;
-      case "w":
-        this.leftHand = "a";
-        break;
-      default:
-        throw new IllegalArgumentException("Invalid direction: " + this.leftHand);
+  //HexTiles are the atlas's tile width apart, and the widest row is the middle one
+  int imageWidth() {
+    return this.walls.rowWidth(this.sideLength - 1) * this.atlas.tileWidth();
+  }
+
+  //rows are the atlas's row height apart, and the first and last reach tileSize past their
+  //centers
+  int imageHeight() {
+    return 2 * this.tileSize + (this.walls.rows() - 1) * this.atlas.rowHeight();
+  }
+
+  //the tile's column, counted from the left of its row, which is centered on the widest
+  double tileCenterX(int index) {
+    return this.latticeX(this.walls.rowOf(index), this.walls.colOf(index));
+  }
+
+  //the tile's row, the first centered tileSize down so its top point touches the top
+  double tileCenterY(int index) {
+    return this.latticeY(this.walls.rowOf(index));
+  }
+
+  //returns the horizontal position of the center of the tile at the given row and column, even
+  //if the maze has no tile there. Each row is half a tile in from the one closer to the middle
+  private int latticeX(int row, int col) {
+    int left = Math.abs(row - (this.sideLength - 1)) * this.atlas.tileWidth() / 2;
+    return left + col * this.atlas.tileWidth() + this.atlas.tileWidth() / 2;
+  }
+
+  //returns the vertical position of the centers of the given row, even if the maze has no
+  //such row
+  private int latticeY(int row) {
+    return this.tileSize + row * this.atlas.rowHeight();
+  }
+
+  //returns the index of the tile drawn at the given position of this HexMaze's image, or -1 if
+  //there is none there. Every tile covers the positions closer to its center than to any other
+  //center of the lattice, so the nearest center of the rows around the position is the tile it
+  //falls in, if the maze has a tile there
+  int tileAtPosition(double x, double y) {
+    int nearRow = (int) Math.floor((y - this.tileSize) / this.atlas.rowHeight() + 0.5);
+    int nearestRow = 0;
+    int nearestCol = -1;
+    double nearestDistance = Double.POSITIVE_INFINITY;
+    //checks the nearest center of the row the position is closest to, and the rows around it
+    for (int row = nearRow - 1; row <= nearRow + 1; row++) {
+      int col = (int) Math.floor((x - this.latticeX(row, 0)) / this.atlas.tileWidth() + 0.5);
+      double distance = Math.hypot(x - this.latticeX(row, col), y - this.latticeY(row));
+      if (distance < nearestDistance) {
+        nearestRow = row;
+        nearestCol = col;
+        nearestDistance = distance;
+      }
+    }
+    if (nearestRow < 0 || nearestRow >= this.walls.rows() || nearestCol < 0
+            || nearestCol >= this.walls.rowWidth(nearestRow)) {
+      return -1;
     }
+    return this.walls.indexOf(nearestRow, nearestCol);
   }
 
-  // Rotates the current leftHand direction to the right
-  private void rotateRight() {
-    switch (this.leftHand) {
-      case "a":
-        this.leftHand = "w";
-        break;
-      case "z":
-        this.leftHand = "a";
-        break;
-      case "x":
-        this.leftHand = "z";
-        break;
-      case "d":
-        this.leftHand = "x";
-        break;
-      case "e":
-        this.leftHand = "d";
-        break;
-      case "w":
-        this.leftHand = "e";
-        break;
-      default:
-        throw new IllegalArgumentException("Invalid direction: " + this.leftHand);
+  //calls the given action on the tiles of the rows and columns the given bounds cross, and
+  //those next to them, since the hexagons reach past their rows and columns
+  void forEachTileIn(int left, int top, int right, int bottom, IntConsumer action) {
+    int tileWidth = this.atlas.tileWidth();
+    int firstRow = Math.max(0, (top - this.tileSize) / this.atlas.rowHeight() - 1);
+    int lastRow = Math.min(this.walls.rows() - 1,
+            (bottom - this.tileSize) / this.atlas.rowHeight() + 1);
+    //iterates through the rows in bounds
+    for (int row = firstRow; row <= lastRow; row++) {
+      int start = this.latticeX(row, 0) - tileWidth / 2;
+      int firstCol = Math.max(0, (left - start) / tileWidth - 1);
+      int lastCol = Math.min(this.walls.rowWidth(row) - 1, (right - start) / tileWidth + 1);
+      //iterates through the columns in bounds
+      for (int col = firstCol; col <= lastCol; col++) {
+        action.accept(this.walls.indexOf(row, col));
+      }
     }
   }
 }
@@ -1355,11 +3534,15 @@ abstract class TileUtils {
   // based off of its index number and the length of the first row
   abstract Integer calculateWidth(Integer currRow, Integer firstRowLength);
 
-  // Generates a Tile of the given color
-  abstract ATile generateTile(Color color);
+  // Generates a Tile of the given color at the given index of the given walls, keeping its
+  // visits in the given VisitState
+  abstract ATile generateTile(WallGrid walls, VisitState visits, int index, Color color);
 
-  // Generates a Tile of the default color
-  abstract ATile generateTile();
+  // Generates the walls for a maze with the given number of rows and length of the first row
+  abstract WallGrid generateWalls(int height, int firstRowLength);
+
+  // Generates the sprites for drawing tiles of the given size
+  abstract ASpriteAtlas generateAtlas(int tileSize);
 }
 
 // Utility methods for RectMazes
@@ -1370,14 +3553,19 @@ class RectUtils extends TileUtils {
     return firstRowLength;
   }
 
-  // Generate a RectTile of the given color
-  ATile generateTile(Color color) {
-    return new RectTile(color);
+  // Generates a RectTile of the given color sharing the given VisitState
+  ATile generateTile(WallGrid walls, VisitState visits, int index, Color color) {
+    return new RectTile(walls, visits, index, color);
+  }
+
+  // Generates the walls of a RectMaze, where every row is as long as the first
+  WallGrid generateWalls(int height, int firstRowLength) {
+    return new RectWallGrid(firstRowLength, height);
   }
 
-  // Generates a RectTile of the default color
-  ATile generateTile() {
-    return new RectTile();
+  // Generates the sprites of square RectTiles of the given size
+  ASpriteAtlas generateAtlas(int tileSize) {
+    return new RectSpriteAtlas(tileSize);
   }
 }
 
@@ -1399,19 +3587,60 @@ class HexUtils extends TileUtils {
     return rowLength;
   }
 
-  // Generates a HexTile of the given color
-  ATile generateTile(Color color) {
-    return new HexTile(color);
+  // Generates a HexTile of the given color sharing the given VisitState
+  ATile generateTile(WallGrid walls, VisitState visits, int index, Color color) {
+    return new HexTile(walls, visits, index, color);
+  }
+
+  // Generates the walls of a HexMaze, whose first row is as long as each of its sides
+  WallGrid generateWalls(int height, int firstRowLength) {
+    return new HexWallGrid(firstRowLength);
+  }
+
+  // Generates the sprites of HexTiles of the given size
+  ASpriteAtlas generateAtlas(int tileSize) {
+    return new HexSpriteAtlas(tileSize);
+  }
+}
+
+//represents how the Game advances its maze each tick. Switching on these compiles to a jump
+//table, where switching on the labels would hash and compare strings every tick
+enum TickMode {
+  CONSTRUCTION("construction"),
+  MANUAL("manual"),
+  DFS("dfs"),
+  BFS("bfs"),
+  ASTAR("astar"),
+  BIDIRECTIONAL("bidirectional"),
+  LHS("lhs"),
+  WON("won");
+
+  private final String label;
+
+  // Creates a TickMode with the given lowercase label
+  TickMode(String label) {
+    this.label = label;
   }
 
-  // Generates a HexTile of the default color
-  ATile generateTile() {
-    return new HexTile();
+  //returns the lowercase label of this mode
+  String label() {
+    return this.label;
   }
 }
 
 //represents the game of solving mazes
 class Game extends World {
+  //the most of the maze shown at once, in pixels
+  static final int VIEW_WIDTH = 1400;
+  static final int VIEW_HEIGHT = 750;
+  //the size of the window the game is played in, in pixels
+  static final int WINDOW_WIDTH = 1500;
+  static final int WINDOW_HEIGHT = 800;
+  //the smallest and largest sizes tiles can be drawn in
+  static final int MIN_TILE_SIZE = 3;
+  static final int MAX_TILE_SIZE = 250;
+  //how far the view moves across the maze each time a pan key is pressed, in pixels
+  static final int PAN_STEP = 200;
 
   // None of the fields are final as they are all subject to change based on user input, e.g.
   // creating a new maze of a different size, toggling the paths and heat, pausing the game, etc.
@@ -1419,55 +3648,85 @@ class Game extends World {
   private int tileSize;
   private boolean paused;
   private String renderMode;
-  private String tickMode;
+  private TickMode tickMode;
   private boolean showConstruction;
   private boolean vertBias;
   private boolean horzBias;
+  //the source of the sizes and seeds of random mazes
+  private SplittableRandom random;
 
   // Creates a Game with a RectMaze of the given size, where width and height are in number of tiles
   Game(int width, int height) {
-    this.tileSize = Math.min(250, Math.min(1400 / width, 700 / height));
+    this.tileSize = Math.max(MIN_TILE_SIZE,
+            Math.min(MAX_TILE_SIZE, Math.min(1400 / width, 700 / height)));
     this.vertBias = false;
     this.horzBias = false;
     this.maze = new RectMaze(width, height, this.tileSize, this.vertBias, this.horzBias);
+    this.maze.setView(VIEW_WIDTH, VIEW_HEIGHT);
+    this.random = new SplittableRandom();
     this.renderMode = "normal";
-    this.tickMode = "construction";
+    this.tickMode = TickMode.CONSTRUCTION;
     this.showConstruction = true;
   }
 
   // Creates a Game with a HexMaze of the given sideLength, where sideLength is in number of tiles
   Game(int sideLength) {
-    this.tileSize = 250 / sideLength;
+    this.tileSize = Math.max(MIN_TILE_SIZE, MAX_TILE_SIZE / sideLength);
     this.vertBias = false;
     this.horzBias = false;
     this.maze = new HexMaze(sideLength, this.tileSize, this.vertBias, this.horzBias);
+    this.maze.setView(VIEW_WIDTH, VIEW_HEIGHT);
+    this.random = new SplittableRandom();
     this.renderMode = "normal";
-    this.tickMode = "construction";
+    this.tickMode = TickMode.CONSTRUCTION;
     this.showConstruction = true;
   }
 
-  // Creates a Game, randomly choosing to have either a RectMaze or a HexMaze
-  Game() {
+  // Creates a Game, randomly choosing to have either a RectMaze or a HexMaze from the given
+  // source. Sources with the same seed always give the same mazes, including the ones made by
+  // pressing n
+  Game(SplittableRandom random) {
     this.vertBias = false;
     this.horzBias = false;
+    this.random = random;
     this.newRandomMaze();
     this.renderMode = "normal";
     this.showConstruction = true;
   }
 
+  // Creates a Game with a random seed, randomly choosing to have either a RectMaze or a HexMaze
+  Game() {
+    this(new SplittableRandom());
+  }
+
   //renders the game as a WorldScene
   public WorldScene makeScene() {
     WorldImage mazeImage = this.maze.render();
     int width = (int) mazeImage.getWidth();
     int height = (int) mazeImage.getHeight();
-    WorldScene scene = new WorldScene(width + this.tileSize, height + this.tileSize);
-    scene.placeImageXY(mazeImage, (width + this.tileSize) / 2, (height + this.tileSize) / 2);
+    WorldScene scene = new WorldScene(width + 2 * this.insetX(), height + 2 * this.insetY());
+    scene.placeImageXY(mazeImage, this.insetX() + width / 2, this.insetY() + height / 2);
     return scene;
   }
 
+  //returns how far the view is drawn in from the left of the scene: half a tile, or less if
+  //the scene would not fit in the window
+  private int insetX() {
+    return Math.max(0, Math.min(this.tileSize, WINDOW_WIDTH - this.maze.viewWidth())) / 2;
+  }
+
+  //returns how far the view is drawn in from the top of the scene: half a tile, or less if the
+  //scene would not fit in the window
+  private int insetY() {
+    return Math.max(0, Math.min(this.tileSize, WINDOW_HEIGHT - this.maze.viewHeight())) / 2;
+  }
+
   //moves the current tile based on a key command
   // See UserGuide.txt for detailed info on how to play the game
   public void onKeyEvent(String key) {
+    if (this.moveView(key)) {
+      return;
+    }
     switch (key) {
       case " ":
         this.paused = !this.paused;
@@ -1487,65 +3746,45 @@ class Game extends World {
       default:
         break;
     }
-    if (!this.tickMode.equals("construction")) {
+    if (this.tickMode != TickMode.CONSTRUCTION) {
       switch (key) {
         case "p":
           this.maze.togglePath();
           break;
         case "r":
           this.maze.restart();
-          if (this.tickMode.equals("won")) {
-            this.tickMode = "manual";
+          if (this.tickMode == TickMode.WON) {
+            this.tickMode = TickMode.MANUAL;
           }
           break;
         case "h":
           this.maze.assignHeats(false);
-          if (!this.renderMode.equals("exit heat map")) {
-            this.maze.toggleHeat();
-          }
-          if (this.renderMode.equals("start heat map")) {
-            this.renderMode = "normal";
-          } else {
-            this.renderMode = "start heat map";
-          }
+          this.showHeatMap("start heat map");
           break;
         case "H":
           this.maze.assignHeats(true);
-          if (!this.renderMode.equals("start heat map")) {
-            this.maze.toggleHeat();
-          }
-          if (this.renderMode.equals("exit heat map")) {
-            this.renderMode = "normal";
-          } else {
-            this.renderMode = "exit heat map";
-          }
+          this.showHeatMap("exit heat map");
           break;
         case "M":
-          if (!this.tickMode.equals("manual")) {
-            this.tickMode = "manual";
-            this.maze.restart();
-          }
+          this.switchTickMode(TickMode.MANUAL);
           break;
         case "D":
-          if (!this.tickMode.equals("dfs")) {
-            this.tickMode = "dfs";
-            this.maze.restart();
-          }
+          this.switchTickMode(TickMode.DFS);
           break;
         case "B":
-          if (!this.tickMode.equals("bfs")) {
-            this.tickMode = "bfs";
-            this.maze.restart();
-          }
+          this.switchTickMode(TickMode.BFS);
+          break;
+        case "A":
+          this.switchTickMode(TickMode.ASTAR);
+          break;
+        case "T":
+          this.switchTickMode(TickMode.BIDIRECTIONAL);
           break;
         case "L":
-          if (!this.tickMode.equals("lhs")) {
-            this.tickMode = "lhs";
-            this.maze.restart();
-          }
+          this.switchTickMode(TickMode.LHS);
           break;
         default:
-          if (this.tickMode.equals("manual") && !this.paused) {
+          if (this.tickMode == TickMode.MANUAL && !this.paused) {
             this.maze.move(key);
           }
           break;
@@ -1557,36 +3796,39 @@ class Game extends World {
   // based on whether it has been won, is in construction, and the Game's tickMode
   public void onTick() {
     if (!this.paused) {
-      if (this.maze.won()) {
-        this.tickMode = "won";
+      if (this.maze.won() && this.tickMode != TickMode.WON) {
+        this.tickMode = TickMode.WON;
+        //nothing changes the tiles until the maze restarts, so the path is shown once
+        this.maze.showSolutionPath();
       }
       switch (this.tickMode) {
-        case "construction":
-          if (this.showConstruction && this.maze.inConstruction()) {
-            this.maze.breakFirstWall();
+        case CONSTRUCTION:
+          if (this.showConstruction) {
+            this.maze.breakWalls(1);
           } else {
             // If the maze is in construction and the user doesn't want to see it,
             // construct the whole maze in this tick
-            while (this.maze.inConstruction()) {
-              this.maze.breakFirstWall();
-            }
+            this.maze.breakWalls(this.maze.wallsRemaining());
           }
           if (!this.maze.inConstruction()) {
             this.maze.findPath();
-            this.tickMode = "manual";
+            this.tickMode = TickMode.MANUAL;
           }
           break;
-        case "dfs":
+        case DFS:
           this.maze.dfsTick();
           break;
-        case "bfs":
+        case BFS:
           this.maze.bfsTick();
           break;
-        case "lhs":
-          this.maze.stickLeftTick();
+        case ASTAR:
+          this.maze.aStarTick();
+          break;
+        case BIDIRECTIONAL:
+          this.maze.bidirectionalTick();
           break;
-        case "won":
-          this.maze.showSolutionPath();
+        case LHS:
+          this.maze.stickLeftTick();
           break;
         default:
           break;
@@ -1594,19 +3836,90 @@ class Game extends World {
     }
   }
 
+  //shows heats from a tile once construction is over, from the tile that was clicked
+  public void onMouseClicked(Posn pos) {
+    if (this.tickMode != TickMode.CONSTRUCTION) {
+      //the view of the maze is drawn in from the corner of the scene
+      int index = this.maze.tileAtPosition(pos.x - this.insetX() + this.maze.viewX(),
+              pos.y - this.insetY() + this.maze.viewY());
+      if (index != -1) {
+        this.maze.assignHeatsFrom(index);
+        if (this.renderMode.equals("normal")) {
+          this.maze.toggleHeat();
+        }
+        this.renderMode = "tile heat map";
+      }
+    }
+  }
+
+  //pans the view with j, l, i and m, or zooms it with = and -, returning whether the given key
+  //was one of them. None of them move the current tile in any maze
+  private boolean moveView(String key) {
+    switch (key) {
+      case "j":
+        this.maze.pan(-PAN_STEP, 0);
+        return true;
+      case "l":
+        this.maze.pan(PAN_STEP, 0);
+        return true;
+      case "i":
+        this.maze.pan(0, -PAN_STEP);
+        return true;
+      case "m":
+        this.maze.pan(0, PAN_STEP);
+        return true;
+      case "=":
+        this.tileSize = Math.min(MAX_TILE_SIZE, this.tileSize * 2);
+        this.maze.zoom(this.tileSize);
+        return true;
+      case "-":
+        this.tileSize = Math.max(MIN_TILE_SIZE, this.tileSize / 2);
+        this.maze.zoom(this.tileSize);
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  //switches to the given tick mode, restarting the maze, unless it is already the current one
+  private void switchTickMode(TickMode mode) {
+    if (this.tickMode != mode) {
+      this.tickMode = mode;
+      this.maze.restart();
+    }
+  }
+
+  //switches to the given heat map, whose heats have been assigned, or back to normal if it is
+  //already shown
+  private void showHeatMap(String heatMode) {
+    if (this.renderMode.equals(heatMode)) {
+      this.maze.toggleHeat();
+      this.renderMode = "normal";
+    } else {
+      if (this.renderMode.equals("normal")) {
+        this.maze.toggleHeat();
+      }
+      this.renderMode = heatMode;
+    }
+  }
+
   // Generates either a RectMaze or HexMaze of random size, and replaces the current maze with it
   private void newRandomMaze() {
-    if (Math.random() > 0.5) {
-      int width = (int) (Math.random() * 100) + 1;
-      int height = (int) (Math.random() * 60) + 1;
-      this.tileSize = Math.min(250, Math.min(1400 / width, 700 / height));
-      this.maze = new RectMaze(width, height, this.tileSize, this.vertBias, this.horzBias);
+    if (this.random.nextBoolean()) {
+      int width = this.random.nextInt(100) + 1;
+      int height = this.random.nextInt(60) + 1;
+      this.tileSize = Math.max(MIN_TILE_SIZE,
+              Math.min(MAX_TILE_SIZE, Math.min(1400 / width, 700 / height)));
+      this.maze = new RectMaze(width, height, this.tileSize, this.vertBias, this.horzBias,
+              this.random.nextLong());
     } else {
-      int sideLength = (int) (Math.random() * 23) + 1;
-      this.tileSize = 250 / sideLength;
-      this.maze = new HexMaze(sideLength, this.tileSize, this.vertBias, this.horzBias);
+      int sideLength = this.random.nextInt(23) + 1;
+      this.tileSize = Math.max(MIN_TILE_SIZE, MAX_TILE_SIZE / sideLength);
+      this.maze = new HexMaze(sideLength, this.tileSize, this.vertBias, this.horzBias,
+              this.random.nextLong());
     }
-    this.tickMode = "construction";
+    this.maze.setView(VIEW_WIDTH, VIEW_HEIGHT);
+    this.tickMode = TickMode.CONSTRUCTION;
     this.renderMode = "normal";
   }
   
@@ -1619,7 +3932,7 @@ class Game extends World {
       case "renderMode":
         return value.equals(this.renderMode);
       case "tickMode":
-        return value.equals(this.tickMode);
+        return value.equals(this.tickMode.label());
       case "showConstruction":
         return value.equals(this.showConstruction);
       case "vertBias":
@@ -1628,6 +3941,10 @@ class Game extends World {
         return value.equals(this.horzBias);
       case "tileSize":
         return value.equals(this.tileSize);
+      case "viewX":
+        return value.equals(this.maze.viewX());
+      case "viewY":
+        return value.equals(this.maze.viewY());
       default:
         throw new IllegalArgumentException("Not a field: " + field);
     }
@@ -1640,284 +3957,463 @@ class ExamplesMazes {
   
   /*
   void testBigBang(Tester t) {
-    m.bigBang(1500, 800, 0.0000001);
+    m.bigBang(Game.WINDOW_WIDTH, Game.WINDOW_HEIGHT, 0.0000001);
   }
   */
 
-  boolean testATileAndEdge(Tester t) {
-    ATile middle = new RectTile();
-    ATile left = new RectTile(Color.RED);
-    ATile right = new RectTile();
-    ATile up = new RectTile();
-    ATile down = new RectTile();
-    ATile hex = new HexTile();
-    HashMap<ATile, ATile> reps = new HashMap<>();
-    reps.put(middle, middle);
-    reps.put(left, left);
-    reps.put(right, middle);
-    reps.put(up, right);
-    reps.put(down, down);
-
-    boolean testFindRep = t.checkExpect(middle.findRep(reps),
-            middle)
-            && t.checkExpect(down.findRep(reps),
-            down)
-            && t.checkExpect(up.findRep(reps),
-            middle)
-            && t.checkExpect(right.findRep(reps),
-            middle);
+  boolean testATile(Tester t) {
+    WallGrid walls = new RectWallGrid(3, 2);
+    VisitState visits = new VisitState(walls.size());
+    WallGrid hexWalls = new HexWallGrid(2);
+    ATile middle = new RectTile(walls, visits, 1, ITile.TILE_COLOR);
+    ATile left = new RectTile(walls, visits, 0, Color.RED);
+    ATile up = new HexTile(hexWalls, new VisitState(hexWalls.size()), 3, ITile.TILE_COLOR);
+    ATile down = new RectTile(walls, visits, 4, ITile.TILE_COLOR);
+
+    boolean testFields = t.checkExpect(middle.index, 1)
+            && t.checkExpect(middle.walls, walls)
+            && t.checkExpect(middle.tileColor, ITile.TILE_COLOR)
+            && t.checkExpect(left.tileColor, Color.RED)
+            && t.checkExpect(up.index, 3);
 
     up.moveTo();
     down.moveFrom();
 
-    boolean testMoveToFrom = t.checkExpect(up.visiting,
+    boolean testMoveToFrom = t.checkExpect(up.visiting(),
             true)
-            && t.checkExpect(down.visiting,
+            && t.checkExpect(down.visiting(),
             false)
-            && t.checkExpect(up.visited,
+            && t.checkExpect(up.visited(),
             false)
-            && t.checkExpect(down.visited,
+            && t.checkExpect(down.visited(),
             true);
 
-    return testFindRep && testMoveToFrom;
+    down.setHeat(HeatGradient.LEVELS - 1);
+
+    boolean testRenderColor = t.checkExpect(up.renderColor(false, true),
+            new Color(61, 118, 204))
+            && t.checkExpect(down.renderColor(true, true),
+            new Color(145, 184, 242))
+            && t.checkExpect(down.renderColor(true, false),
+            Color.BLUE)
+            && t.checkExpect(down.renderColor(false, false),
+            ITile.TILE_COLOR)
+            && t.checkException(new IllegalArgumentException("Not a heat level: 256"), down,
+            "setHeat", 256);
+
+    down.resetVistStatus();
+
+    boolean testReset = t.checkExpect(down.visited(), false)
+            && t.checkExpect(down.visiting(), false);
+
+    return testFields && testMoveToFrom && testRenderColor && testReset;
   }
 
-  boolean testRectTile(Tester t) {
-    RectTile middle = new RectTile();
-    RectTile left = new RectTile(Color.RED);
-    RectTile right = new RectTile();
-    RectTile up = new RectTile();
-    RectTile down = new RectTile();
-
-    middle.setUp(up);
-    up.setDown(middle);
-    middle.setLeft(left);
-    left.setRight(middle);
-    middle.setRight(right);
-    right.setLeft(middle);
-    middle.setDown(down);
-    down.setUp(middle);
-
-    middle.breakTile(left);
-    left.breakTile(middle);
-    up.breakRect(middle);
-    middle.breakRect(up);
-
-    boolean testSettingAndBreakingAndCanMove = t.checkExpect(middle.canMove("up"),
-            true)
-            && t.checkExpect(middle.canMove("left"), true)
-            && t.checkExpect(middle.canMove("right"), false)
-            && t.checkExpect(middle.canMove("down"), false);
+  boolean testHeatGradient(Tester t) {
+    return t.checkExpect(HeatGradient.color(0), Color.RED)
+            && t.checkExpect(HeatGradient.color(255), Color.BLUE)
+            && t.checkExpect(HeatGradient.color(100), new Color(155, 0, 100))
+            && t.checkExpect(HeatGradient.color(7) == HeatGradient.color(7), true)
+            && t.checkExpect(HeatGradient.level(0, 10), 0)
+            && t.checkExpect(HeatGradient.level(10, 10), 255)
+            && t.checkExpect(HeatGradient.level(5, 10), 127)
+            && t.checkExpect(HeatGradient.level(0, 0), 0);
+  }
 
-    boolean checkExceptions = t.checkException(new IllegalArgumentException(
-            "Invalid direction: hi"), middle, "canMove", "hi")
-            && t.checkException(
-            new IllegalArgumentException("Tile is not a neighbor"),
-            left, "breakRect", right);
-
-    boolean testAccessibleNeighbors = t.checkExpect(middle.accessibleNeighbors(),
-            new ArrayList<>(Arrays.asList(left, up)))
-            && t.checkExpect(left.accessibleNeighbors(),
-            new ArrayList<>(List.of(middle)))
-            && t.checkExpect(down.accessibleNeighbors(),
-            new ArrayList<>());
-
-    return testSettingAndBreakingAndCanMove && checkExceptions && testAccessibleNeighbors;
-  }
-
-  boolean EdgeAndWeightComparator(Tester t) {
-    RectTile middle = new RectTile();
-    RectTile left = new RectTile(Color.RED);
-    RectTile right = new RectTile();
-    RectTile up = new RectTile();
-    RectTile down = new RectTile();
-
-    middle.setUp(up);
-    up.setDown(middle);
-    middle.setLeft(left);
-    left.setRight(middle);
-    middle.setRight(right);
-    right.setLeft(middle);
-    middle.setDown(down);
-    down.setUp(middle);
-
-    HashMap<ATile, ATile> reps = new HashMap<>();
-    reps.put(middle, middle);
-    reps.put(left, left);
-    reps.put(right, middle);
-    reps.put(up, right);
-    reps.put(down, down);
-
-    Edge e1 = new Edge(right, middle, 10);
-    Edge e2 = new Edge(left, middle, 5);
-    Edge e3 = new Edge(right, up, 5);
-
-    e1.breakEdge();
-    e2.breakEdge();
-
-    boolean testBreakEdge = t.checkExpect(right.canMove("left"),
-            true)
-            && t.checkExpect(middle.canMove("right"),
-            true)
-            && t.checkExpect(left.canMove("right"),
-            true)
-            && t.checkExpect(middle.canMove("left"),
-            true)
-            && t.checkExpect(middle.canMove("up"),
-            false);
+  boolean testVisitState(Tester t) {
+    WallGrid walls = new RectWallGrid(3, 2);
+    VisitState visits = new VisitState(6);
+    ATile first = new RectTile(walls, visits, 0, Color.RED);
+    ATile second = new RectTile(walls, visits, 1, ITile.TILE_COLOR);
 
-    boolean testCompareWeight = t.checkExpect(e1.compareWeight(e2),
-            1)
-            && t.checkExpect(e2.compareWeight(e1),
-            -1)
-            && t.checkExpect(e2.compareWeight(e3),
-            0);
+    boolean testFresh = t.checkExpect(visits.visiting(0), false)
+            && t.checkExpect(visits.visited(0), false)
+            && t.checkExpect(visits.seen(0), false)
+            && t.checkExpect(first.tileColor, Color.RED);
 
-    boolean testFind = t.checkExpect(e1.sameReps(reps),
-            true)
-            && t.checkExpect(e2.sameReps(reps),
-            false);
+    first.moveTo();
+    second.moveTo();
+    second.moveFrom();
+    visits.see(5);
 
-    e2.unionReps(reps);
+    boolean testShared = t.checkExpect(visits.visiting(0), true)
+            && t.checkExpect(visits.visiting(1), false)
+            && t.checkExpect(visits.visited(1), true)
+            && t.checkExpect(second.visited(), true)
+            && t.checkExpect(visits.seen(5), true)
+            && t.checkExpect(visits.seen(4), false);
 
-    boolean testUnion = t.checkExpect(e2.sameReps(reps),
-            true);
+    second.resetVistStatus();
 
-    HexTile mid = new HexTile();
-    HexTile l = new HexTile();
-    HexTile r = new HexTile();
-    HexTile rightup = new HexTile();
-    HexTile rightdown = new HexTile();
-    HexTile leftup = new HexTile();
-    HexTile leftdown = new HexTile();
-
-    mid.setLeft(l);
-    l.setRight(mid);
-    mid.setLeftUp(leftup);
-    leftup.setRightDown(mid);
-    mid.setLeftDown(leftdown);
-    leftdown.setRightUp(mid);
-    mid.setRight(r);
-    r.setLeft(mid);
-    mid.setRightDown(rightdown);
-    rightdown.setLeftUp(mid);
-    mid.setRightUp(rightup);
-    rightup.setLeftDown(mid);
-
-    HashMap<ATile, ATile> hexReps = new HashMap<>();
-    hexReps.put(mid, mid);
-    hexReps.put(l, mid);
-    hexReps.put(r, l);
-    hexReps.put(leftup, leftup);
-
-    Edge hexEdge1 = new Edge(mid, l, 10);
-    Edge hexEdge2 = new Edge(mid, leftup, 10);
-    Edge hexEdge3 = new Edge(mid, right, 100);
-
-    hexEdge1.breakEdge();
-    hexEdge2.breakEdge();
-
-    boolean testHexBreakEdge = t.checkExpect(mid.canMove("a"),
-            true)
-            && t.checkExpect(l.canMove("d"),
-            true)
-            && t.checkExpect(mid.canMove("w"),
-            true)
-            && t.checkExpect(leftup.canMove("x"),
-            true)
-            && t.checkExpect(mid.canMove("x"),
-            false);
+    boolean testForget = t.checkExpect(second.visited(), false)
+            && t.checkExpect(first.visiting(), true);
+
+    visits.reset();
+
+    boolean testReset = t.checkExpect(first.visiting(), false)
+            && t.checkExpect(visits.seen(5), false);
+
+    first.moveTo();
+    visits.reset();
+    second.moveTo();
+
+    boolean testNewEpoch = t.checkExpect(first.visiting(), false)
+            && t.checkExpect(second.visiting(), true);
+
+    return testFresh && testShared && testForget && testReset && testNewEpoch;
+  }
+
+  boolean testUnionFind(Tester t) {
+    UnionFind uf = new UnionFind(6);
+
+    boolean testInit = t.checkExpect(uf.size(), 6)
+            && t.checkExpect(uf.find(0), 0)
+            && t.checkExpect(uf.find(5), 5)
+            && t.checkExpect(uf.sameSet(1, 2), false);
+
+    boolean testUnion = t.checkExpect(uf.union(0, 1), true)
+            && t.checkExpect(uf.union(2, 3), true)
+            && t.checkExpect(uf.union(1, 3), true)
+            && t.checkExpect(uf.union(0, 2), false)
+            && t.checkExpect(uf.sameSet(0, 3), true)
+            && t.checkExpect(uf.sameSet(3, 4), false)
+            && t.checkExpect(uf.find(3), uf.find(0))
+            && t.checkExpect(uf.find(5), 5);
+
+    //a long chain of unions must neither recurse nor leave the sets split
+    UnionFind chain = new UnionFind(100000);
+    for (int i = 1; i < 100000; i++) {
+      chain.union(i - 1, i);
+    }
+    boolean testChain = t.checkExpect(chain.sameSet(0, 99999), true)
+            && t.checkExpect(chain.union(99999, 0), false);
+    chain.reset();
+    boolean testReset = t.checkExpect(chain.sameSet(0, 99999), false)
+            && t.checkExpect(chain.find(500), 500)
+            && t.checkExpect(chain.union(1, 2), true);
+
+    boolean testException = t.checkConstructorException(
+            new IllegalArgumentException("Size must be non-negative"),
+            "UnionFind", -1);
+
+    return testInit && testUnion && testChain && testReset && testException;
+  }
+
+  boolean testIntDeque(Tester t) {
+    IntDeque deque = new IntDeque(2);
+    deque.addLast(1);
+    deque.addLast(2);
+    deque.addFirst(0);
+    deque.addFirst(-1);
+    boolean testGrow = t.checkExpect(deque.size(), 4)
+            && t.checkExpect(deque.removeFirst(), -1)
+            && t.checkExpect(deque.removeFirst(), 0)
+            && t.checkExpect(deque.removeFirst(), 1);
+
+    //wraps around the end of the array many times without growing
+    boolean testWrap = true;
+    for (int i = 3; i < 1000; i++) {
+      deque.addLast(i);
+      testWrap = testWrap && deque.removeFirst() == i - 1;
+    }
+    boolean testDrain = t.checkExpect(testWrap, true)
+            && t.checkExpect(deque.removeFirst(), 999)
+            && t.checkExpect(deque.isEmpty(), true);
+
+    deque.addFirst(5);
+    deque.addLast(6);
+    deque.addFirst(4);
+    boolean testArray = t.checkExpect(deque.toArray(), new int[] {4, 5, 6})
+            && t.checkExpect(deque.get(0), 4)
+            && t.checkExpect(deque.get(2), 6)
+            && t.checkException(new IndexOutOfBoundsException("Not in the deque: 3"), deque,
+            "get", 3);
+    deque.clear();
+    return testGrow && testDrain && testArray
+            && t.checkExpect(deque.isEmpty(), true)
+            && t.checkException(new NoSuchElementException("Deque is empty"), deque,
+            "removeFirst");
+  }
 
-    boolean testCompareHexWeight = t.checkExpect(hexEdge1.compareWeight(hexEdge2),
-            0)
-            && t.checkExpect(hexEdge1.compareWeight(hexEdge3),
-            -1)
-            && t.checkExpect(hexEdge3.compareWeight(hexEdge1),
-            1);
+  boolean testIndexedMinHeap(Tester t) {
+    IndexedMinHeap heap = new IndexedMinHeap(10);
+    heap.insertOrDecrease(3, 30);
+    heap.insertOrDecrease(7, 10);
+    heap.insertOrDecrease(1, 20);
+    heap.insertOrDecrease(9, 40);
+    //lowers 9 below everything, but never raises 7
+    heap.insertOrDecrease(9, 5);
+    heap.insertOrDecrease(7, 50);
+    boolean testOrder = t.checkExpect(heap.size(), 4)
+            && t.checkExpect(heap.contains(9), true)
+            && t.checkExpect(heap.contains(0), false)
+            && t.checkExpect(heap.removeMin(), 9)
+            && t.checkExpect(heap.removeMin(), 7)
+            && t.checkExpect(heap.contains(7), false)
+            && t.checkExpect(heap.removeMin(), 1)
+            && t.checkExpect(heap.removeMin(), 3)
+            && t.checkExpect(heap.isEmpty(), true);
+
+    //sorts many random priorities
+    IndexedMinHeap big = new IndexedMinHeap(1000);
+    SplittableRandom random = new SplittableRandom(8);
+    for (int i = 0; i < 1000; i++) {
+      big.insertOrDecrease(i, random.nextInt(100));
+    }
+    boolean testSorted = true;
+    int last = -1;
+    while (!big.isEmpty()) {
+      int curr = big.removeMin();
+      testSorted = testSorted && !big.contains(curr);
+      last = curr;
+    }
+    big.insertOrDecrease(last, 1);
+    big.insertOrDecrease(5, 2);
+    big.clear();
+
+    return testOrder && t.checkExpect(testSorted, true)
+            && t.checkExpect(big.isEmpty(), true)
+            && t.checkExpect(big.contains(5), false)
+            && t.checkException(new NoSuchElementException("Heap is empty"), big, "removeMin");
+  }
 
-    boolean testFindHex = t.checkExpect(hexEdge1.sameReps(hexReps),
+  boolean testRectTile(Tester t) {
+    // 0 1 2
+    // 3 4 5
+    // 6 7 8
+    WallGrid walls = new RectWallGrid(3, 3);
+    VisitState visits = new VisitState(walls.size());
+    RectTile middle = new RectTile(walls, visits, 4, ITile.TILE_COLOR);
+    RectTile left = new RectTile(walls, visits, 3, Color.RED);
+    RectTile down = new RectTile(walls, visits, 7, ITile.TILE_COLOR);
+
+    walls.breakEdge(4, 3);
+    walls.breakEdge(1, 4);
+
+    boolean testBreakingAndCanMove = t.checkExpect(middle.canMove("up"),
             true)
-            && t.checkExpect(hexEdge2.sameReps(hexReps),
-            false);
+            && t.checkExpect(middle.canMove("left"), true)
+            && t.checkExpect(middle.canMove("right"), false)
+            && t.checkExpect(middle.canMove("down"), false)
+            && t.checkExpect(middle.canMove("w"), true)
+            && t.checkExpect(middle.canMove("a"), true)
+            && t.checkExpect(left.canMove("d"), true)
+            && t.checkExpect(left.canMove("a"), false)
+            && t.checkExpect(down.canMove("s"), false);
 
-    hexEdge2.unionReps(hexReps);
+    boolean checkExceptions = t.checkException(new IllegalArgumentException(
+            "Invalid direction: hi"), middle, "canMove", "hi");
 
-    boolean testUnionHex = t.checkExpect(hexEdge2.sameReps(hexReps),
-            true);
+    return testBreakingAndCanMove && checkExceptions;
+  }
+
+  boolean testPackedEdges(Tester t) {
+    long e1 = PackedEdges.pack(5999, 123456, 2);
+    long e2 = PackedEdges.pack(0, Integer.MAX_VALUE, 3);
+
+    boolean testPacking = t.checkExpect(PackedEdges.weight(e1), 5999)
+            && t.checkExpect(PackedEdges.tileIndex(e1), 123456)
+            && t.checkExpect(PackedEdges.slot(e1), 2)
+            && t.checkExpect(PackedEdges.weight(e2), 0)
+            && t.checkExpect(PackedEdges.tileIndex(e2), Integer.MAX_VALUE)
+            && t.checkExpect(PackedEdges.slot(e2), 3)
+            && t.checkExpect(e2 < e1, true);
+
+    SplittableRandom source = new SplittableRandom(42);
+    boolean testRandomWeight = true;
+    //draws many weights, checking that they stay in bounds
+    for (int i = 0; i < 1000; i++) {
+      int unbiased = PackedEdges.randomWeight(source, false);
+      int biased = PackedEdges.randomWeight(source, true);
+      testRandomWeight = testRandomWeight
+              && unbiased >= 0 && unbiased < PackedEdges.MAX_WEIGHT
+              && biased >= 0 && biased < PackedEdges.MAX_WEIGHT / 2;
+    }
+
+    //equal weights keep their original order
+    long[] edges = new long[] {
+        PackedEdges.pack(300, 0, 0), PackedEdges.pack(2, 0, 1), PackedEdges.pack(300, 1, 0),
+        PackedEdges.pack(5000, 1, 1), PackedEdges.pack(2, 2, 0), PackedEdges.pack(0, 2, 1)};
+    PackedEdges.radixSort(edges);
+    boolean testSort = t.checkExpect(edges, new long[] {
+        PackedEdges.pack(0, 2, 1), PackedEdges.pack(2, 0, 1), PackedEdges.pack(2, 2, 0),
+        PackedEdges.pack(300, 0, 0), PackedEdges.pack(300, 1, 0), PackedEdges.pack(5000, 1, 1)});
+
+    long[] random = new long[10000];
+    //fills the array with random edges
+    for (int i = 0; i < random.length; i++) {
+      random[i] = PackedEdges.pack(PackedEdges.randomWeight(source, false), i, i % 3);
+    }
+    long[] expected = random.clone();
+    Arrays.sort(expected);
+    PackedEdges.radixSort(random);
+    boolean testRandomSort = t.checkExpect(random, expected);
+
+    long[] empty = new long[0];
+    PackedEdges.radixSort(empty);
 
-    WeightComparator comp = new WeightComparator();
-    boolean testComp = t.checkExpect(comp.compare(hexEdge1, hexEdge2),
-            0)
-            && t.checkExpect(comp.compare(hexEdge3, hexEdge2),
-            1)
-            && t.checkExpect(comp.compare(hexEdge2, hexEdge3),
-            -1)
-            && t.checkExpect(comp.compare(e1, e2),
-            1)
-            && t.checkExpect(comp.compare(e2, e3),
-            0)
-            && t.checkExpect(comp.compare(e2, e1),
-            -1);
-
-    return testBreakEdge && testCompareWeight && testFind
-            && testUnion && testHexBreakEdge && testCompareHexWeight
-            && testFindHex && testUnionHex && testComp;
+    return testPacking && testRandomWeight && testSort && testRandomSort
+            && t.checkExpect(empty, new long[0]);
   }
 
   boolean testHexTile(Tester t) {
-    HexTile middle = new HexTile();
-    HexTile left = new HexTile();
-    HexTile right = new HexTile();
-    HexTile rightup = new HexTile();
-    HexTile rightdown = new HexTile();
-    HexTile leftup = new HexTile();
-    HexTile leftdown = new HexTile();
-
-    middle.setLeft(left);
-    left.setRight(middle);
-    middle.setLeftUp(leftup);
-    leftup.setRightDown(middle);
-    middle.setLeftDown(leftdown);
-    leftdown.setRightUp(middle);
-    middle.setRight(right);
-    right.setLeft(middle);
-    middle.setRightDown(rightdown);
-    rightdown.setLeftUp(middle);
-    middle.setRightUp(rightup);
-    rightup.setLeftDown(middle);
-
-    middle.breakTile(right);
-    right.breakTile(middle);
-    middle.breakHex(leftdown);
-    leftdown.breakHex(middle);
-
-    boolean testSetandBreakByCanMove = t.checkExpect(middle.canMove("a"),
+    //   0 1
+    //  2 3 4
+    //   5 6
+    WallGrid walls = new HexWallGrid(2);
+    VisitState visits = new VisitState(walls.size());
+    HexTile middle = new HexTile(walls, visits, 3, ITile.TILE_COLOR);
+    HexTile right = new HexTile(walls, visits, 4, ITile.TILE_COLOR);
+    HexTile rightdown = new HexTile(walls, visits, 6, ITile.TILE_COLOR);
+    HexTile leftdown = new HexTile(walls, visits, 5, ITile.TILE_COLOR);
+
+    walls.breakEdge(3, 4);
+    walls.breakEdge(5, 3);
+
+    boolean testBreakByCanMove = t.checkExpect(middle.canMove("a"),
             false)
             && t.checkExpect(middle.canMove("d"), true)
             && t.checkExpect(right.canMove("a"), true)
             && t.checkExpect(middle.canMove("z"), true)
             && t.checkExpect(leftdown.canMove("e"), true)
-            && t.checkExpect(rightdown.canMove("w"), false);
+            && t.checkExpect(rightdown.canMove("w"), false)
+            && t.checkExpect(middle.canMove("x"), false)
+            && t.checkExpect(middle.canMove("e"), false);
 
     boolean testExceptions = t.checkException(
             new IllegalArgumentException("Invalid direction: 1"),
             middle,
             "canMove",
-            "1")
-            && t.checkException(
-            new IllegalArgumentException("Tile is not a neighbor"),
-            left,
-            "breakHex",
-            right);
+            "1");
 
-    boolean testAccessibleNeighbors = t.checkExpect(middle.accessibleNeighbors(),
-            new ArrayList<>(Arrays.asList(leftdown, right)))
-            && t.checkExpect(right.accessibleNeighbors(),
-            new ArrayList<>(List.of(middle)))
-            && t.checkExpect(leftup.accessibleNeighbors(),
-            new ArrayList<>());
+    return testBreakByCanMove && testExceptions;
+  }
 
-    return testSetandBreakByCanMove && testExceptions && testAccessibleNeighbors;
+  boolean testWallGrid(Tester t) {
+    // 0 1 2
+    // 3 4 5
+    // 6 7 8
+    WallGrid rect = new RectWallGrid(3, 3);
+
+    boolean testRectShape = t.checkExpect(rect.size(), 9)
+            && t.checkExpect(rect.rows(), 3)
+            && t.checkExpect(rect.rowWidth(2), 3)
+            && t.checkExpect(rect.indexOf(2, 1), 7)
+            && t.checkExpect(rect.rowOf(5), 1)
+            && t.checkExpect(rect.colOf(5), 2)
+            && t.checkExpect(rect.directions(), 4)
+            && t.checkExpect(rect.halfEdges(), 2)
+            && t.checkExpect(rect.halfEdgeDirection(0), RectWallGrid.RIGHT)
+            && t.checkExpect(rect.halfEdgeDirection(1), RectWallGrid.DOWN)
+            && t.checkExpect(rect.opposite(RectWallGrid.LEFT), RectWallGrid.RIGHT)
+            && t.checkExpect(rect.opposite(RectWallGrid.UP), RectWallGrid.DOWN);
+
+    boolean testRectNeighbors = t.checkExpect(rect.neighbor(4, RectWallGrid.LEFT), 3)
+            && t.checkExpect(rect.neighbor(4, RectWallGrid.RIGHT), 5)
+            && t.checkExpect(rect.neighbor(4, RectWallGrid.UP), 1)
+            && t.checkExpect(rect.neighbor(4, RectWallGrid.DOWN), 7)
+            && t.checkExpect(rect.neighbor(3, RectWallGrid.LEFT), -1)
+            && t.checkExpect(rect.neighbor(5, RectWallGrid.RIGHT), -1)
+            && t.checkExpect(rect.neighbor(2, RectWallGrid.UP), -1)
+            && t.checkExpect(rect.neighbor(6, RectWallGrid.DOWN), -1);
+
+    rect.breakEdge(4, 3);
+    rect.breakWall(1, RectWallGrid.DOWN);
+
+    boolean testRectWalls = t.checkExpect(rect.canMove(4, RectWallGrid.LEFT), true)
+            && t.checkExpect(rect.canMove(3, RectWallGrid.RIGHT), true)
+            && t.checkExpect(rect.canMove(4, RectWallGrid.UP), true)
+            && t.checkExpect(rect.canMove(4, RectWallGrid.RIGHT), false)
+            && t.checkExpect(rect.canMove(0, RectWallGrid.LEFT), false)
+            && t.checkExpect(rect.accessibleNeighbors(4), new ArrayList<>(Arrays.asList(3, 1)))
+            && t.checkExpect(rect.accessibleNeighbors(3), new ArrayList<>(List.of(4)))
+            && t.checkExpect(rect.accessibleNeighbors(7), new ArrayList<>())
+            && t.checkExpect(rect.openDirections(4), 1 << RectWallGrid.LEFT | 1 << RectWallGrid.UP)
+            && t.checkExpect(rect.openDirections(3), 1 << RectWallGrid.RIGHT)
+            && t.checkExpect(rect.openDirections(7), 0)
+            && t.checkExpect(rect.directionOf("w"), RectWallGrid.UP)
+            && t.checkExpect(rect.directionOf("left"), RectWallGrid.LEFT)
+            && t.checkExpect(rect.directionOf("e"), -1)
+            && t.checkExpect(new RectTile(rect, new VisitState(rect.size()), 1, ITile.TILE_COLOR)
+            .openDirections(), 1 << RectWallGrid.DOWN)
+            && t.checkException(new IllegalArgumentException("Tile is not a neighbor"),
+            rect, "breakEdge", 3, 5)
+            && t.checkException(new IllegalArgumentException("No neighbor in direction: 3"),
+            rect, "breakWall", 0, RectWallGrid.UP)
+            && t.checkException(new IllegalArgumentException("Invalid direction: 4"),
+            rect, "neighbor", 0, 4)
+            && t.checkException(new IllegalArgumentException("Invalid slot: 2"),
+            rect, "halfEdgeDirection", 2);
+
+    //   0 1
+    //  2 3 4
+    //   5 6
+    WallGrid hex = new HexWallGrid(2);
+
+    boolean testHexShape = t.checkExpect(hex.size(), 7)
+            && t.checkExpect(hex.rows(), 3)
+            && t.checkExpect(hex.rowWidth(1), 3)
+            && t.checkExpect(hex.indexOf(2, 0), 5)
+            && t.checkExpect(hex.rowOf(0), 0)
+            && t.checkExpect(hex.rowOf(4), 1)
+            && t.checkExpect(hex.rowOf(6), 2)
+            && t.checkExpect(hex.colOf(4), 2)
+            && t.checkExpect(hex.directions(), 6)
+            && t.checkExpect(hex.halfEdges(), 3)
+            && t.checkExpect(hex.halfEdgeDirection(2), HexWallGrid.LEFT_DOWN)
+            && t.checkExpect(hex.opposite(HexWallGrid.LEFT_DOWN), HexWallGrid.RIGHT_UP);
+
+    boolean testHexNeighbors = t.checkExpect(hex.neighbor(3, HexWallGrid.LEFT), 2)
+            && t.checkExpect(hex.neighbor(3, HexWallGrid.RIGHT), 4)
+            && t.checkExpect(hex.neighbor(3, HexWallGrid.LEFT_UP), 0)
+            && t.checkExpect(hex.neighbor(3, HexWallGrid.RIGHT_UP), 1)
+            && t.checkExpect(hex.neighbor(3, HexWallGrid.LEFT_DOWN), 5)
+            && t.checkExpect(hex.neighbor(3, HexWallGrid.RIGHT_DOWN), 6)
+            && t.checkExpect(hex.neighbor(0, HexWallGrid.LEFT_DOWN), 2)
+            && t.checkExpect(hex.neighbor(0, HexWallGrid.RIGHT_DOWN), 3)
+            && t.checkExpect(hex.neighbor(6, HexWallGrid.LEFT_UP), 3)
+            && t.checkExpect(hex.neighbor(6, HexWallGrid.RIGHT_UP), 4)
+            && t.checkExpect(hex.neighbor(2, HexWallGrid.LEFT_UP), -1)
+            && t.checkExpect(hex.neighbor(4, HexWallGrid.RIGHT_DOWN), -1)
+            && t.checkExpect(hex.neighbor(1, HexWallGrid.RIGHT_UP), -1);
+
+    hex.breakEdge(3, 6);
+    hex.breakWall(1, HexWallGrid.LEFT_DOWN);
+
+    boolean testHexWalls = t.checkExpect(hex.canMove(6, HexWallGrid.LEFT_UP), true)
+            && t.checkExpect(hex.canMove(3, HexWallGrid.RIGHT_UP), true)
+            && t.checkExpect(hex.canMove(3, HexWallGrid.LEFT_UP), false)
+            && t.checkExpect(hex.accessibleNeighbors(3), new ArrayList<>(Arrays.asList(6, 1)))
+            && t.checkExpect(hex.openDirections(3),
+            1 << HexWallGrid.RIGHT_DOWN | 1 << HexWallGrid.RIGHT_UP)
+            && t.checkExpect(hex.openDirections(1), 1 << HexWallGrid.LEFT_DOWN)
+            && t.checkExpect(hex.directionOf("e"), HexWallGrid.RIGHT_UP)
+            && t.checkExpect(hex.directionOf("z"), HexWallGrid.LEFT_DOWN)
+            && t.checkExpect(hex.directionOf("up"), -1);
+
+    //every neighbor relation is symmetric, and every tile is reachable once all walls are broken
+    WallGrid bigHex = new HexWallGrid(6);
+    boolean testSymmetric = true;
+    for (int i = 0; i < bigHex.size(); i++) {
+      for (int dir = 0; dir < bigHex.directions(); dir++) {
+        int n = bigHex.neighbor(i, dir);
+        testSymmetric = testSymmetric
+                && (n == -1 || bigHex.neighbor(n, bigHex.opposite(dir)) == i);
+        if (n != -1) {
+          bigHex.breakWall(i, dir);
+        }
+      }
+    }
+    boolean testAllOpen = t.checkExpect(bigHex.size(), 91)
+            && t.checkExpect(bigHex.accessibleNeighbors(45).size(), 6)
+            && t.checkExpect(bigHex.accessibleNeighbors(0).size(), 3)
+            && t.checkExpect(bigHex.openDirections(45), 63)
+            && t.checkExpect(bigHex.openDirections(0), 1 << HexWallGrid.LEFT_DOWN
+            | 1 << HexWallGrid.RIGHT_DOWN | 1 << HexWallGrid.RIGHT);
+
+    return testRectShape && testRectNeighbors && testRectWalls && testHexShape
+            && testHexNeighbors && testHexWalls && t.checkExpect(testSymmetric, true)
+            && testAllOpen;
   }
 
   boolean testRectMazes(Tester t) {
@@ -1926,11 +4422,11 @@ class ExamplesMazes {
     AMaze horzBiasedRectMaze = new RectMaze(4, 4, 15, false, true);
 
     boolean checkConstructor = t.checkConstructorException(
-            new IllegalArgumentException("Width must be between 1 and 100"),
-            "RectMaze", 101, 1, 10, true, true)
+            new IllegalArgumentException("Width must be between 1 and 1000"),
+            "RectMaze", 1001, 1, 10, true, true)
             && t.checkConstructorException(
-            new IllegalArgumentException("Height must be between 1 and 60"),
-            "RectMaze", 10, 61, 10, false, false);
+            new IllegalArgumentException("Height must be between 1 and 1000"),
+            "RectMaze", 10, 1001, 10, false, false);
 
 
     boolean testInConstruction = t.checkExpect(unbiasedRectMaze.inConstruction(),
@@ -1960,6 +4456,18 @@ class ExamplesMazes {
             && t.checkExpect(unbiasedRectMaze.inConstruction(),
             false);
 
+    //15 tiles, 14 edges in MST
+    AMaze batchRectMaze = new RectMaze(5, 3, 10, false, false);
+
+    boolean testBreakWalls = t.checkExpect(batchRectMaze.wallsRemaining(), 14)
+            && t.checkExpect(batchRectMaze.breakWalls(4), 4)
+            && t.checkExpect(batchRectMaze.wallsRemaining(), 10)
+            && t.checkExpect(batchRectMaze.inConstruction(), true)
+            && t.checkExpect(batchRectMaze.breakWalls(100), 10)
+            && t.checkExpect(batchRectMaze.breakWalls(1), 0)
+            && t.checkExpect(batchRectMaze.wallsRemaining(), 0)
+            && t.checkExpect(batchRectMaze.inConstruction(), false);
+
 
     boolean testWon = t.checkExpect(vertBiasedRectMaze.won(),
             false)
@@ -1996,12 +4504,12 @@ class ExamplesMazes {
 
 
     boolean testSolutionDisplayed = t.checkExpect(
-            vertBiasedRectMaze.grid.get(0).get(0).visiting,
+            vertBiasedRectMaze.grid.get(0).get(0).visiting(),
             true)
-            && t.checkExpect(vertBiasedRectMaze.grid.get(1).get(1).visiting,
+            && t.checkExpect(vertBiasedRectMaze.grid.get(1).get(1).visiting(),
             true)
-            && t.checkExpect(vertBiasedRectMaze.grid.get(0).get(1).visited
-            || vertBiasedRectMaze.grid.get(1).get(0).visited, true);
+            && t.checkExpect(vertBiasedRectMaze.grid.get(0).get(1).visited()
+            || vertBiasedRectMaze.grid.get(1).get(0).visited(), true);
 
 
     vertBiasedRectMaze.restart();
@@ -2014,11 +4522,11 @@ class ExamplesMazes {
             && t.checkExpect(unbiasedRectMaze.won(),
             false);
 
-    horzBiasedRectMaze.move("right", 1, 0);
+    horzBiasedRectMaze.move(RectWallGrid.RIGHT);
 
     //move only if no wall
-    boolean testMove = t.checkExpect(horzBiasedRectMaze.grid.get(0).get(0).visiting
-            || horzBiasedRectMaze.grid.get(0).get(1).visiting, true);
+    boolean testMove = t.checkExpect(horzBiasedRectMaze.grid.get(0).get(0).visiting()
+            || horzBiasedRectMaze.grid.get(0).get(1).visiting(), true);
 
 
     unbiasedRectMaze.assignHeats(true);
@@ -2031,7 +4539,7 @@ class ExamplesMazes {
     //if we visit right before down, that tile color should be less blue
     //end should also be more blue
     //vice versa when starting from exit
-    boolean testStartFromStartHeats = vertBiasedRectMaze.grid.get(0).get(1).visiting ?
+    boolean testStartFromStartHeats = vertBiasedRectMaze.grid.get(0).get(1).visiting() ?
             t.checkExpect(vertBiasedRectMaze.grid.get(0).get(1).tileColor.getBlue()
                     <= vertBiasedRectMaze.grid.get(1).get(0).tileColor.getBlue(), true)
             : t.checkExpect(vertBiasedRectMaze.grid.get(1).get(0).tileColor.getBlue()
@@ -2067,12 +4575,12 @@ class ExamplesMazes {
 
 
     //either rotate left or right
-    boolean testLeftTick = t.checkExpect(unbiasedRectMaze.leftHand.equals("w")
-            || unbiasedRectMaze.leftHand.equals("d"), true);
+    boolean testLeftTick = t.checkExpect(unbiasedRectMaze.leftHand == RectWallGrid.UP
+            || unbiasedRectMaze.leftHand == RectWallGrid.RIGHT, true);
 
 
     return checkConstructor && testLeftTick && testInConstruction
-            && testInConstructionAndBreakFirstWall && testWon && checkWonDFSBFS
+            && testInConstructionAndBreakFirstWall && testBreakWalls && testWon && checkWonDFSBFS
             && testSolutionDisplayed && testRestart && testMove
             && testStartFromExitHeats && testStartFromStartHeats
             && testTogglesFirst && testTogglesAgain;
@@ -2084,8 +4592,8 @@ class ExamplesMazes {
     AMaze horzBiasedHexMaze = new HexMaze(4, 5, false, true);
 
     boolean testConstructor = t.checkConstructorException(
-            new IllegalArgumentException("Sidelength must be between 1 and 23"),
-            "HexMaze", 34, 10, true, true);
+            new IllegalArgumentException("Sidelength must be between 1 and 500"),
+            "HexMaze", 501, 10, true, true);
 
 
     boolean testInConstruction = t.checkExpect(unbiasedHexMaze.inConstruction(),
@@ -2175,10 +4683,10 @@ class ExamplesMazes {
 
 
     boolean testSolutionDisplayed = t.checkExpect(
-            vertBiasedHexMaze.grid.get(0).get(0).visiting,
+            vertBiasedHexMaze.grid.get(0).get(0).visiting(),
             true)
             && t.checkExpect(vertBiasedHexMaze.grid.get(vertBiasedHexMaze.grid.size() - 1)
-            .get(vertBiasedHexMaze.grid.get(0).size() - 1).visiting, true);
+            .get(vertBiasedHexMaze.grid.get(0).size() - 1).visiting(), true);
 
 
     vertBiasedHexMaze.restart();
@@ -2191,11 +4699,11 @@ class ExamplesMazes {
             false);
 
 
-    vertBiasedHexMaze.move("d", 1, 0);
+    vertBiasedHexMaze.move(HexWallGrid.RIGHT);
 
 
-    boolean testMove = t.checkExpect(vertBiasedHexMaze.grid.get(0).get(1).visiting
-            || vertBiasedHexMaze.grid.get(0).get(0).visiting, true);
+    boolean testMove = t.checkExpect(vertBiasedHexMaze.grid.get(0).get(1).visiting()
+            || vertBiasedHexMaze.grid.get(0).get(0).visiting(), true);
 
 
     unbiasedHexMaze.assignHeats(true);
@@ -2205,7 +4713,7 @@ class ExamplesMazes {
     vertBiasedHexMaze.bfsTick();
 
 
-    boolean testStartFromStartHeats = vertBiasedHexMaze.grid.get(0).get(1).visiting ?
+    boolean testStartFromStartHeats = vertBiasedHexMaze.grid.get(0).get(1).visiting() ?
             t.checkExpect(vertBiasedHexMaze.grid.get(0).get(1).tileColor.getBlue()
                             <= vertBiasedHexMaze.grid.get(1).get(1).tileColor.getBlue()
                             && vertBiasedHexMaze.grid.get(0).get(1).tileColor.getBlue()
@@ -2247,6 +4755,932 @@ class ExamplesMazes {
             && testStartFromExitHeats && testTogglesAgain && testTogglesFirst;
   }
 
+  boolean testSearchTicks(Tester t) {
+    RectMaze rect = new RectMaze(100, 60, 10, false, false, 3);
+    HexMaze hex = new HexMaze(23, 10, false, true, 4);
+    rect.breakWalls(rect.wallsRemaining());
+    hex.breakWalls(hex.wallsRemaining());
+
+    //every tile is visited at most once, so the largest mazes are solved within one tick per tile
+    int rectTicks = 0;
+    while (!rect.won() && rectTicks <= 6000) {
+      rect.dfsTick();
+      rectTicks++;
+    }
+    int hexTicks = 0;
+    while (!hex.won() && hexTicks <= 1600) {
+      hex.bfsTick();
+      hexTicks++;
+    }
+    boolean testSolved = t.checkExpect(rect.won(), true)
+            && t.checkExpect(rectTicks <= 6000, true)
+            && t.checkExpect(hex.won(), true)
+            && t.checkExpect(hexTicks <= 1600, true)
+            && t.checkExpect(rect.tileAt(5999).visiting(), true);
+
+    //each search traces its own path back through the tiles it reached every tile from, which
+    //in a tree is the only path
+    boolean testPaths = t.checkExpect(rect.solution(), rect.treeIndex().path(0, 5999))
+            && t.checkExpect(hex.solution(), hex.treeIndex().path(0, hex.walls.size() - 1))
+            && t.checkExpect(this.isSolution(rect.walls, rect.solution()), true);
+
+    //restarting clears what was seen, so the same search visits the same tiles again
+    rect.restart();
+    int again = 0;
+    while (!rect.won()) {
+      rect.dfsTick();
+      again++;
+    }
+    //moving by hand keeps the path walked so far, taking back steps that are retraced
+    RectMaze line = new RectMaze(3, 1, 10, false, false, 5);
+    line.breakWalls(line.wallsRemaining());
+    line.move(RectWallGrid.RIGHT);
+    line.move(RectWallGrid.RIGHT);
+    line.move(RectWallGrid.LEFT);
+    boolean testManual = t.checkExpect(line.solution(), new int[] {0, 1});
+    line.move(RectWallGrid.RIGHT);
+    testManual = testManual && t.checkExpect(line.solution(), new int[] {0, 1, 2});
+
+    //the ticks list neighbors left, up, down then right, as the tiles did: from tile 4, the bfs
+    //queues the right neighbor before the one above, and the dfs pushes it last
+    // 0   1 - 2
+    // |   |
+    // 3 - 4 - 5
+    RectMaze order = new RectMaze(3, 2, 10, false, false, 6);
+    order.walls.breakEdge(0, 3);
+    order.walls.breakEdge(3, 4);
+    order.walls.breakEdge(4, 1);
+    order.walls.breakEdge(4, 5);
+    order.walls.breakEdge(1, 2);
+    while (!order.won()) {
+      order.bfsTick();
+    }
+    boolean testOrder = t.checkExpect(order.tileAt(1).visited(), false);
+    order.restart();
+    while (!order.won()) {
+      order.dfsTick();
+    }
+    testOrder = testOrder && t.checkExpect(order.tileAt(1).visited(), false)
+            && t.checkExpect(order.solution(), new int[] {0, 3, 4, 5});
+
+    hex.restart();
+    //A* finds the same path
+    while (!hex.won()) {
+      hex.aStarTick();
+    }
+    return testSolved && testPaths && testManual && testOrder && t.checkExpect(again, rectTicks)
+            && t.checkExpect(hex.solution(), hex.treeIndex().path(0, hex.walls.size() - 1));
+  }
+
+  boolean testHeatMap(Tester t) {
+    // 0 1 2
+    // 3 4 5
+    WallGrid walls = new RectWallGrid(3, 2);
+    HeatMap heats = new HeatMap(walls);
+    walls.breakEdge(0, 1);
+    walls.breakEdge(1, 4);
+    walls.breakEdge(4, 3);
+    boolean testPartial = t.checkExpect(walls.changes(), 3)
+            && t.checkExpect(heats.distances(false), new int[] {0, 1, -1, 3, 2, -1})
+            && t.checkExpect(heats.maxDistance(false), 3)
+            && t.checkExpect(heats.distances(true), new int[] {-1, -1, -1, -1, -1, 0})
+            && t.checkExpect(heats.maxDistance(true), 0);
+
+    int[] cached = heats.distances(false);
+    //breaking an already broken wall changes nothing
+    walls.breakEdge(1, 0);
+    boolean testCached = t.checkExpect(walls.changes(), 3)
+            && t.checkExpect(heats.distances(false) == cached, true);
+
+    walls.breakEdge(4, 5);
+    walls.breakEdge(5, 2);
+    return testPartial && testCached
+            && t.checkExpect(heats.distances(false), new int[] {0, 1, 4, 3, 2, 3})
+            && t.checkExpect(heats.distances(true), new int[] {3, 2, 1, 2, 1, 0})
+            && t.checkExpect(heats.maxDistance(true), 3)
+            && t.checkExpect(new HeatMap(new RectWallGrid(1, 1)).maxDistance(true), 0);
+  }
+
+  boolean testTreeIndex(Tester t) {
+    // 0 - 1   2
+    //     |   |
+    // 3 - 4 - 5
+    WallGrid walls = new RectWallGrid(3, 2);
+    walls.breakEdge(0, 1);
+    walls.breakEdge(1, 4);
+    walls.breakEdge(4, 3);
+    walls.breakEdge(4, 5);
+    walls.breakEdge(5, 2);
+    TreeIndex index = new TreeIndex(walls, 0);
+    boolean testSmall = t.checkExpect(index.parent(0), 0)
+            && t.checkExpect(index.parent(2), 5)
+            && t.checkExpect(index.depth(2), 4)
+            && t.checkExpect(index.ancestorAt(2, 1), 1)
+            && t.checkExpect(index.lowestCommonAncestor(3, 2), 4)
+            && t.checkExpect(index.lowestCommonAncestor(0, 5), 0)
+            && t.checkExpect(index.distance(3, 2), 3)
+            && t.checkExpect(index.distance(5, 5), 0)
+            && t.checkExpect(index.path(3, 2), new int[] {3, 4, 5, 2})
+            && t.checkExpect(index.path(2, 0), new int[] {2, 5, 4, 1, 0})
+            && t.checkExpect(new TreeIndex(walls, 2).path(0, 3), new int[] {0, 1, 4, 3});
+
+    //a single long corridor needs many jumps
+    WallGrid corridor = new RectWallGrid(5000, 1);
+    for (int i = 1; i < 5000; i++) {
+      corridor.breakEdge(i - 1, i);
+    }
+    TreeIndex corridorIndex = new TreeIndex(corridor, 0);
+    boolean testCorridor = t.checkExpect(corridorIndex.ancestorAt(4999, 1234), 1234)
+            && t.checkExpect(corridorIndex.lowestCommonAncestor(4321, 17), 17)
+            && t.checkExpect(corridorIndex.distance(4999, 2), 4997)
+            && t.checkExpect(corridorIndex.path(4999, 0).length, 5000);
+
+    //every distance agrees with a breadth first search from the same tile
+    HeadlessMaze hex = new HeadlessMaze(new HexUtils(), 59, 30, false, false, 12);
+    TreeIndex hexIndex = new TreeIndex(hex.walls(), 0);
+    HeatMap heats = new HeatMap(hex.walls());
+    SplittableRandom random = new SplittableRandom(5);
+    boolean testHex = t.checkExpect(hexIndex.path(0, hex.walls().size() - 1), hex.solve());
+    for (int i = 0; i < 20; i++) {
+      int from = random.nextInt(hex.walls().size());
+      int[] distances = heats.distancesFrom(from);
+      for (int j = 0; j < 50; j++) {
+        int to = random.nextInt(hex.walls().size());
+        int[] path = hexIndex.path(to, from);
+        testHex = testHex && hexIndex.distance(from, to) == distances[to]
+                && path.length == distances[to] + 1
+                && path[0] == to && path[path.length - 1] == from;
+      }
+    }
+
+    //indexing a tree before its walls are broken gives the same paths as indexing them after
+    WallGrid unbroken = new RectWallGrid(40, 30);
+    long[] tree = new KruskalBuilder(unbroken, 13).buildTree(false, false);
+    TreeIndex treeIndex = new TreeIndex(unbroken, tree, 0);
+    for (long edge : tree) {
+      unbroken.breakPackedEdge(edge);
+    }
+    TreeIndex brokenIndex = new TreeIndex(unbroken, 0);
+    boolean testTree = t.checkExpect(treeIndex.path(0, 1199), brokenIndex.path(0, 1199))
+            && t.checkExpect(treeIndex.path(617, 38), brokenIndex.path(617, 38));
+
+    return testSmall && testCorridor && t.checkExpect(testHex, true) && testTree
+            && t.checkConstructorException(new IllegalArgumentException(
+                    "Not every tile is reachable from 0"), "TreeIndex", new RectWallGrid(2, 1), 0);
+  }
+
+  boolean testRender(Tester t) {
+    Color visiting = new Color(61, 118, 204);
+    Color visited = new Color(145, 184, 242);
+    Color exit = new Color(106, 34, 128);
+    RectMaze rect = new RectMaze(2, 1, 4, false, false, 1);
+    ComputedPixelImage image = (ComputedPixelImage) rect.render();
+    boolean testWalled = t.checkExpect(image.getWidth(), 8.0)
+            && t.checkExpect(image.getHeight(), 4.0)
+            && t.checkExpect(image.getPixel(1, 1), visiting)
+            && t.checkExpect(image.getPixel(0, 0), ITile.WALL_COLOR)
+            && t.checkExpect(image.getPixel(3, 1), ITile.WALL_COLOR)
+            && t.checkExpect(image.getPixel(5, 1), exit);
+
+    //only the tiles that changed are repainted, into the same raster
+    rect.breakWalls(1);
+    boolean testBroken = t.checkExpect(rect.render() == image, true)
+            && t.checkExpect(image.getPixel(3, 1), visiting)
+            && t.checkExpect(image.getPixel(4, 1), exit)
+            && t.checkExpect(image.getPixel(3, 0), ITile.WALL_COLOR);
+    rect.move(RectWallGrid.RIGHT);
+    rect.render();
+    boolean testMoved = t.checkExpect(image.getPixel(1, 1), visited)
+            && t.checkExpect(image.getPixel(5, 1), visiting);
+    rect.togglePath();
+    rect.render();
+    testMoved = testMoved && t.checkExpect(image.getPixel(1, 1), new Color(31, 128, 70));
+
+    //   0 1
+    //  2 3 4
+    //   5 6
+    HexMaze hex = new HexMaze(2, 10, false, false, 1);
+    ComputedPixelImage hexImage = (ComputedPixelImage) hex.render();
+    boolean testHex = t.checkExpect(hexImage.getWidth(), 54.0)
+            && t.checkExpect(hexImage.getHeight(), 50.0)
+            && t.checkExpect(hex.tileCenterX(3), 27.0)
+            && t.checkExpect(hex.tileCenterY(3), 25.0)
+            && t.checkExpect(hexImage.getPixel(17, 10), visiting)
+            && t.checkExpect(hexImage.getPixel(25, 25), ITile.TILE_COLOR)
+            && t.checkExpect(hexImage.getPixel(9, 25), ITile.TILE_COLOR)
+            && t.checkExpect(hexImage.getPixel(17, 25), ITile.WALL_COLOR)
+            && t.checkExpect(hexImage.getPixel(0, 25), ITile.WALL_COLOR)
+            && t.checkExpect(hexImage.getPixel(18, 49), ITile.WALL_COLOR)
+            && t.checkExpect(hexImage.getPixel(36, 40), exit);
+    return testWalled && testBroken && testMoved && testHex;
+  }
+
+  boolean testMazeEventBuffer(Tester t) {
+    MazeEventBuffer buffer = new MazeEventBuffer(3);
+    RectMaze rect = new RectMaze(2, 1, 4, false, false, 1);
+    rect.addListener(buffer);
+    rect.breakWalls(1);
+    rect.move(RectWallGrid.RIGHT);
+    boolean testEvents = t.checkExpect(buffer.size(), 3)
+            && t.checkExpect(buffer.dropped(), 1)
+            && t.checkExpect(buffer.indexAt(0), 1)
+            && t.checkExpect(buffer.kindAt(0), IMazeListener.WALL_BROKEN)
+            && t.checkExpect(buffer.indexAt(1), 0)
+            && t.checkExpect(buffer.kindAt(1), IMazeListener.VISITED)
+            && t.checkExpect(buffer.indexAt(2), 1)
+            && t.checkExpect(buffer.kindAt(2), IMazeListener.VISITING)
+            && t.checkException(new IndexOutOfBoundsException("Not in the buffer: 3"), buffer,
+            "indexAt", 3);
+
+    //showing the path only tells the listeners about the tiles it changes
+    buffer.clear();
+    rect.showSolutionPath();
+    boolean testShown = t.checkExpect(buffer.size(), 1)
+            && t.checkExpect(buffer.indexAt(0), 0)
+            && t.checkExpect(buffer.kindAt(0), IMazeListener.VISITING);
+    buffer.clear();
+    rect.showSolutionPath();
+    testShown = testShown && t.checkExpect(buffer.size(), 0);
+
+    buffer.clear();
+    rect.restart();
+    boolean testRestart = t.checkExpect(buffer.size(), 2)
+            && t.checkExpect(buffer.dropped(), 0)
+            && t.checkExpect(buffer.indexAt(0), -1)
+            && t.checkExpect(buffer.kindAt(0), IMazeListener.RESET)
+            && t.checkExpect(buffer.indexAt(1), 0)
+            && t.checkExpect(buffer.kindAt(1), IMazeListener.VISITING);
+
+    buffer.clear();
+    rect.removeListener(buffer);
+    rect.toggleHeat();
+    return testEvents && testShown && testRestart && t.checkExpect(buffer.size(), 0)
+            && t.checkConstructorException(
+            new IllegalArgumentException("Capacity must be positive"), "MazeEventBuffer", 0);
+  }
+
+  boolean testRectSpriteAtlas(Tester t) {
+    RectSpriteAtlas atlas = new RectSpriteAtlas(4);
+    //a closed square is walled all around; an open one has wall only in the corners
+    boolean testSprites = t.checkExpect(atlas.sprite(0), new int[] {
+        -2, -2, 4, 1,
+        -1, -2, 1, 1, -1, -1, 2, 0, -1, 1, 1, 1,
+        0, -2, 1, 1, 0, -1, 2, 0, 0, 1, 1, 1,
+        1, -2, 4, 1})
+            && t.checkExpect(atlas.sprite(15), new int[] {
+                -2, -2, 1, 1, -2, -1, 2, 0, -2, 1, 1, 1,
+                -1, -2, 4, 0, 0, -2, 4, 0,
+                1, -2, 1, 1, 1, -1, 2, 0, 1, 1, 1, 1})
+            && t.checkExpect(atlas.sprite(15) == atlas.sprite(15), true);
+
+    //the runs past the edges of the raster are cut off
+    ComputedPixelImage raster = new ComputedPixelImage(3, 3);
+    atlas.blit(raster, 0, 0, 15, Color.RED);
+    return testSprites && t.checkExpect(atlas.tileWidth(), 4)
+            && t.checkExpect(atlas.rowHeight(), 4)
+            && t.checkExpect(atlas.pixels(), 16)
+            && t.checkExpect(raster.getPixel(0, 0), Color.RED)
+            && t.checkExpect(raster.getPixel(1, 1), ITile.WALL_COLOR)
+            && t.checkExpect(raster.getPixel(1, 0), Color.RED)
+            && t.checkConstructorException(
+            new IllegalArgumentException("Tile size must be positive"), "RectSpriteAtlas", 0);
+  }
+
+  boolean testHexSpriteAtlas(Tester t) {
+    HexSpriteAtlas atlas = new HexSpriteAtlas(10);
+    ComputedPixelImage closed = new ComputedPixelImage(40, 40);
+    ComputedPixelImage open = new ComputedPixelImage(40, 40);
+    atlas.blit(closed, 20, 20, 0, Color.RED);
+    atlas.blit(open, 20, 20, 63, Color.RED);
+    int closedPixels = 0;
+    int closedWalls = 0;
+    int openWalls = 0;
+    //counts the painted and wall pixels of both tiles
+    for (int y = 0; y < 40; y++) {
+      for (int x = 0; x < 40; x++) {
+        closedWalls += closed.getPixel(x, y).equals(ITile.WALL_COLOR) ? 1 : 0;
+        closedPixels += closed.getPixel(x, y).equals(Color.RED) ? 1 : 0;
+        openWalls += open.getPixel(x, y).equals(ITile.WALL_COLOR) ? 1 : 0;
+      }
+    }
+    //tiles cover their share of the lattice exactly, so neighbors never overlap or leave gaps
+    return t.checkExpect(atlas.tileWidth(), 18)
+            && t.checkExpect(atlas.rowHeight(), 15)
+            && t.checkExpect(atlas.pixels(), 18 * 15)
+            && t.checkExpect(closedPixels + closedWalls, atlas.pixels())
+            && t.checkExpect(closedWalls > 0 && closedWalls < atlas.pixels(), true)
+            && t.checkExpect(openWalls, 0)
+            && t.checkExpect(new HexSpriteAtlas(7).pixels(), 12 * 11)
+            && t.checkExpect(atlas.sprite(0) == atlas.sprite(0), true)
+            && t.checkConstructorException(
+            new IllegalArgumentException("Tile size must be positive"), "HexSpriteAtlas", 0);
+  }
+
+  boolean testViewport(Tester t) {
+    Color visiting = new Color(61, 118, 204);
+    Color exit = new Color(106, 34, 128);
+    RectMaze rect = new RectMaze(300, 200, 4, false, false, 1);
+    rect.setView(100, 50);
+    ComputedPixelImage image = (ComputedPixelImage) rect.render();
+    int[] count = {0};
+    rect.forEachTileIn(0, 0, 100, 50, index -> count[0]++);
+    boolean testView = t.checkExpect(image.getWidth(), 100.0)
+            && t.checkExpect(image.getHeight(), 50.0)
+            && t.checkExpect(image.getPixel(1, 1), visiting)
+            && t.checkExpect(count[0], 25 * 13);
+
+    //the view stops at the edges of the image
+    rect.pan(40, 8);
+    image = (ComputedPixelImage) rect.render();
+    boolean covered = true;
+    //checks that every pixel of the view was painted as a wall or an unvisited tile
+    for (int y = 0; y < 50; y++) {
+      for (int x = 0; x < 100; x++) {
+        Color pixel = image.getPixel(x, y);
+        covered = covered && (pixel.equals(ITile.WALL_COLOR) || pixel.equals(ITile.TILE_COLOR));
+      }
+    }
+    boolean testPan = t.checkExpect(rect.viewX(), 40)
+            && t.checkExpect(rect.viewY(), 8)
+            && t.checkExpect(image.getPixel(1, 1), ITile.TILE_COLOR)
+            && t.checkExpect(covered, true);
+    rect.pan(-1000, 0);
+    testPan = testPan && t.checkExpect(rect.viewX(), 0) && t.checkExpect(rect.viewY(), 8);
+    rect.pan(100000, 100000);
+    image = (ComputedPixelImage) rect.render();
+    testPan = testPan && t.checkExpect(rect.viewX(), 1100)
+            && t.checkExpect(rect.viewY(), 750)
+            && t.checkExpect(image.getPixel(98, 48), exit);
+
+    //zooming keeps the middle of the view over the same part of the maze
+    rect.zoom(8);
+    boolean testZoom = t.checkExpect(rect.imageWidth(), 2400)
+            && t.checkExpect(rect.viewX(), 2250)
+            && t.checkExpect(rect.viewY(), 1525)
+            && t.checkExpect(rect.render().getWidth(), 100.0)
+            && t.checkException(new IllegalArgumentException("Tile size must be positive"),
+            rect, "zoom", 0)
+            && t.checkException(
+            new IllegalArgumentException("View must be at least one pixel wide and tall"),
+            rect, "setView", 0, 5);
+
+    HexMaze hex = new HexMaze(100, 3, false, false, 1);
+    hex.setView(60, 40);
+    //centers the view on the first tile, which is drawn 3 pixels down
+    hex.pan((int) hex.tileCenterX(0) - 30, 0);
+    ComputedPixelImage hexImage = (ComputedPixelImage) hex.render();
+    boolean testHex = t.checkExpect(hexImage.getWidth(), 60.0)
+            && t.checkExpect(hexImage.getPixel(30, 2), visiting)
+            && t.checkExpect(hexImage.getPixel(30, 0), ITile.WALL_COLOR)
+            && t.checkExpect(hexImage.getPixel(26, 7), ITile.TILE_COLOR);
+    //a raster shifted by a pan matches one rendered from scratch in the same place
+    hex.pan(-30, 10);
+    hex.pan(15, -5);
+    hexImage = (ComputedPixelImage) hex.render();
+    HexMaze fresh = new HexMaze(100, 3, false, false, 1);
+    fresh.setView(60, 40);
+    fresh.pan(hex.viewX(), hex.viewY());
+    ComputedPixelImage freshImage = (ComputedPixelImage) fresh.render();
+    boolean shifted = true;
+    //compares every pixel of the two views
+    for (int y = 0; y < 40; y++) {
+      for (int x = 0; x < 60; x++) {
+        shifted = shifted && hexImage.getPixel(x, y).equals(freshImage.getPixel(x, y));
+      }
+    }
+    testHex = testHex && t.checkExpect(shifted, true);
+    hex.pan(567, 300);
+    hexImage = (ComputedPixelImage) hex.render();
+    boolean hexCovered = true;
+    //checks that every pixel of a view inside the hexagon was painted as a wall or an unvisited
+    //tile
+    for (int y = 0; y < 40; y++) {
+      for (int x = 0; x < 60; x++) {
+        Color pixel = hexImage.getPixel(x, y);
+        hexCovered = hexCovered
+                && (pixel.equals(ITile.WALL_COLOR) || pixel.equals(ITile.TILE_COLOR));
+      }
+    }
+    hex.pan(1000000, 0);
+    testHex = testHex && t.checkExpect(hexCovered, true)
+            && t.checkExpect(hex.viewX(), hex.imageWidth() - 60);
+
+    //mazes too big for the window start at the smallest tile size, and zoom in powers of two
+    Game g = new Game(800, 400);
+    boolean testGame = t.checkExpect(g.checkField("tileSize", Game.MIN_TILE_SIZE), true);
+    g.onKeyEvent("=");
+    testGame = testGame && t.checkExpect(g.checkField("tileSize", 6), true);
+    g.onKeyEvent("-");
+    g.onKeyEvent("-");
+    g.onKeyEvent("l");
+    g.onKeyEvent("m");
+    g.onKeyEvent("m");
+    g.onKeyEvent("i");
+    testGame = testGame && t.checkExpect(g.checkField("tileSize", Game.MIN_TILE_SIZE), true)
+            && t.checkExpect(g.checkField("viewX", Game.PAN_STEP), true)
+            && t.checkExpect(g.checkField("viewY", Game.PAN_STEP), true);
+
+    //the scene keeps half a tile around the view, unless that would not fit the window
+    WorldScene scene = new Game(5, 5).makeScene();
+    testGame = testGame && t.checkExpect(scene.width, 840)
+            && t.checkExpect(scene.height, Game.WINDOW_HEIGHT);
+
+    //the arrow keys still move the current tile of RectMazes, rather than panning
+    Game line = new Game(2, 1);
+    line.onTick();
+    line.onKeyEvent("right");
+    line.onTick();
+    return testView && testPan && testZoom && testHex && testGame
+            && t.checkExpect(line.checkField("tickMode", TickMode.WON.label()), true)
+            && t.checkExpect(line.checkField("viewX", 0), true);
+  }
+
+  boolean testTileAtPosition(Tester t) {
+    RectMaze rect = new RectMaze(4, 3, 10, false, false);
+    //hexagons of side 10 are 18 wide; the middle row of 3 is centered 25 down
+    HexMaze hex = new HexMaze(2, 10, false, false);
+    return t.checkExpect(rect.tileAtPosition(5, 5), 0)
+            && t.checkExpect(rect.tileAtPosition(39.9, 29.9), 11)
+            && t.checkExpect(rect.tileAtPosition(15, 12), 5)
+            && t.checkExpect(rect.tileAtPosition(40, 5), -1)
+            && t.checkExpect(rect.tileAtPosition(-1, 5), -1)
+            && t.checkExpect(hex.tileAtPosition(17, 10), 0)
+            && t.checkExpect(hex.tileAtPosition(35, 10), 1)
+            && t.checkExpect(hex.tileAtPosition(26, 25), 3)
+            && t.checkExpect(hex.tileAtPosition(3, 25), 2)
+            && t.checkExpect(hex.tileAtPosition(17, 40), 5)
+            && t.checkExpect(hex.tileAtPosition(0, 0), -1)
+            && t.checkExpect(hex.tileAtPosition(26, 60), -1);
+  }
+
+  boolean testAStarTick(Tester t) {
+    //with every wall broken, the estimates are the exact distances
+    WallGrid openRect = new RectWallGrid(9, 7);
+    WallGrid openHex = new HexWallGrid(6);
+    for (WallGrid walls : Arrays.asList(openRect, openHex)) {
+      for (int i = 0; i < walls.size(); i++) {
+        for (int slot = 0; slot < walls.halfEdges(); slot++) {
+          if (walls.neighbor(i, walls.halfEdgeDirection(slot)) != -1) {
+            walls.breakWall(i, walls.halfEdgeDirection(slot));
+          }
+        }
+      }
+    }
+    HeatMap rectHeats = new HeatMap(openRect);
+    HeatMap hexHeats = new HeatMap(openHex);
+    boolean testEstimates = true;
+    for (int i = 0; i < openRect.size(); i++) {
+      testEstimates = testEstimates
+              && openRect.distanceEstimate(17, i) == rectHeats.distancesFrom(17)[i];
+    }
+    for (int i = 0; i < openHex.size(); i++) {
+      for (int j = 0; j < openHex.size(); j += 7) {
+        testEstimates = testEstimates
+                && openHex.distanceEstimate(j, i) == hexHeats.distancesFrom(j)[i];
+      }
+    }
+
+    RectMaze rect = new RectMaze(100, 60, 10, false, false, 21);
+    HexMaze hex = new HexMaze(23, 10, true, false, 22);
+    rect.breakWalls(rect.wallsRemaining());
+    hex.breakWalls(hex.wallsRemaining());
+    //solves with A*, then with bfs after restarting
+    while (!rect.won()) {
+      rect.aStarTick();
+    }
+    while (!hex.won()) {
+      hex.aStarTick();
+    }
+    int rectAStar = rect.expandedCount();
+    int hexAStar = hex.expandedCount();
+    rect.restart();
+    hex.restart();
+    boolean testRestart = t.checkExpect(rect.expandedCount(), 0);
+    while (!rect.won()) {
+      rect.bfsTick();
+    }
+    while (!hex.won()) {
+      hex.bfsTick();
+    }
+
+    //A* expands at least the solution and never more than the whole maze
+    return t.checkExpect(testEstimates, true) && testRestart
+            && t.checkExpect(rectAStar >= rect.treeIndex().distance(0, 5999) + 1, true)
+            && t.checkExpect(rectAStar <= 6000, true)
+            && t.checkExpect(hexAStar >= hex.treeIndex().distance(0, hex.walls.size() - 1) + 1,
+            true)
+            && t.checkExpect(hexAStar <= hex.walls.size(), true)
+            && t.checkExpect(rect.tileAt(5999).visiting(), true);
+  }
+
+  boolean testDeadEndFiller(Tester t) {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    //tiny stripes make most fills cross into another stripe
+    HeadlessMaze rect = new HeadlessMaze(new RectUtils(), 120, 90, true, false, 41);
+    HeadlessMaze hex = new HeadlessMaze(new HexUtils(), 59, 30, false, false, 42);
+    HeadlessMaze column = new HeadlessMaze(new RectUtils(), 500, 1, false, false, 43);
+    boolean testSolve = t.checkExpect(new DeadEndFiller(rect.walls(), pool, 7).solve(),
+            rect.solve())
+            && t.checkExpect(new DeadEndFiller(rect.walls(), pool).solve(), rect.solve())
+            && t.checkExpect(rect.solveByFilling(pool), rect.solve())
+            && t.checkExpect(new DeadEndFiller(hex.walls(), pool, 50).solve(), hex.solve())
+            && t.checkExpect(new DeadEndFiller(column.walls(), pool, 3).solve().length, 500)
+            && t.checkExpect(new DeadEndFiller(new RectWallGrid(1, 1), pool).solve(),
+            new int[] {0});
+
+    //the middle tile is cut off from the exit
+    WallGrid cutOff = new RectWallGrid(3, 1);
+    cutOff.breakEdge(0, 1);
+    pool.shutdown();
+    return testSolve
+            && t.checkException(new IllegalStateException("The exit cannot be reached"),
+            new DeadEndFiller(cutOff, ForkJoinPool.commonPool()), "solve")
+            && t.checkConstructorException(new IllegalArgumentException(
+                    "Stripe size must be positive"), "DeadEndFiller", cutOff,
+            ForkJoinPool.commonPool(), 0);
+  }
+
+  boolean testWallFollower(Tester t) {
+    // 0 - 1
+    // |
+    // 2 - 3
+    WallGrid walls = new RectWallGrid(2, 2);
+    walls.breakEdge(0, 1);
+    walls.breakEdge(0, 2);
+    walls.breakEdge(2, 3);
+    WallFollower small = new WallFollower(walls);
+    boolean testSmall = t.checkExpect(small.steps(), 4)
+            && t.checkExpect(small.tileAfter(1), 1)
+            && t.checkExpect(small.tileAfter(2), 0)
+            && t.checkExpect(small.tileAfter(4), 3)
+            && t.checkExpect(small.moveAt(0), RectWallGrid.RIGHT)
+            && t.checkExpect(small.moveAt(1), RectWallGrid.LEFT)
+            && t.checkExpect(small.handAfter(2, 4), RectWallGrid.RIGHT)
+            && t.checkExpect(new WallFollower(new HexWallGrid(1)).steps(), 0);
+
+    //every wall off the solution is passed through twice and every wall on it once
+    HeadlessMaze hex = new HeadlessMaze(new HexUtils(), 45, 23, true, false, 51);
+    WallFollower follower = new WallFollower(hex.walls());
+    BitSet visited = new BitSet();
+    boolean testSteps = true;
+    for (int step = 0; step < follower.steps(); step++) {
+      visited.set(follower.tileAfter(step));
+      testSteps = testSteps && hex.walls().canMove(follower.tileAfter(step), follower.moveAt(step))
+              && hex.walls().neighbor(follower.tileAfter(step), follower.moveAt(step))
+              == follower.tileAfter(step + 1);
+    }
+    visited.set(hex.walls().size() - 1);
+    boolean testTour = t.checkExpect(testSteps, true)
+            && t.checkExpect(follower.steps(),
+            2 * (visited.cardinality() - 1) - (hex.solve().length - 1));
+
+    //replays the walk in a maze, or seeks straight to a step of it
+    RectMaze rect = new RectMaze(60, 40, 10, false, false, 52);
+    rect.breakWalls(rect.wallsRemaining());
+    int ticks = 0;
+    while (!rect.won()) {
+      rect.stickLeftTick();
+      ticks++;
+    }
+    rect.seekLeftHand(10);
+    int tenth = rect.wallFollower().tileAfter(10);
+    boolean testReplay = t.checkExpect(ticks, rect.wallFollower().steps())
+            && t.checkExpect(rect.won(), false)
+            && t.checkExpect(rect.tileAt(tenth).visiting(), true)
+            && t.checkExpect(rect.leftHand, rect.wallFollower().handAfter(9, 4));
+
+    WallGrid cutOff = new RectWallGrid(2, 1);
+    return testSmall && testTour && testReplay
+            && t.checkConstructorException(new IllegalStateException(
+                    "The exit cannot be reached"), "WallFollower", cutOff);
+  }
+
+  boolean testBidirectionalSearch(Tester t) {
+    // 0 - 1   2
+    //     |   |
+    // 3 - 4 - 5
+    WallGrid walls = new RectWallGrid(3, 2);
+    walls.breakEdge(0, 1);
+    walls.breakEdge(1, 4);
+    walls.breakEdge(4, 3);
+    walls.breakEdge(4, 5);
+    BidirectionalSearch search = new BidirectionalSearch(walls);
+    //expands 0, then 5, then 1 which reaches 4, already reached from 5
+    boolean testSteps = t.checkExpect(search.step(), false)
+            && t.checkExpect(search.lastExpanded(), 0)
+            && t.checkExpect(search.step(), false)
+            && t.checkExpect(search.lastExpanded(), 5)
+            && t.checkExpect(search.step(), true)
+            && t.checkExpect(search.expandedCount(), 3)
+            && t.checkExpect(search.step(), true)
+            && t.checkExpect(search.expandedCount(), 3)
+            && t.checkExpect(search.path(), new int[] {0, 1, 4, 5});
+    search.reset();
+    boolean testReset = t.checkExpect(search.expandedCount(), 0)
+            && t.checkException(new IllegalStateException("The two sides have not met"), search,
+            "path");
+
+    //the exit side runs out after 2 and the start side carries on alone
+    WallGrid cutOff = new RectWallGrid(3, 2);
+    cutOff.breakEdge(0, 1);
+    BidirectionalSearch stuck = new BidirectionalSearch(cutOff);
+    while (!stuck.step() && !stuck.exhausted()) {
+      stuck.lastExpanded();
+    }
+    boolean testExhausted = t.checkExpect(stuck.exhausted(), true)
+            && t.checkExpect(stuck.expandedCount(), 3)
+            && t.checkExpect(new BidirectionalSearch(new RectWallGrid(1, 1)).step(), true)
+            && t.checkExpect(new BidirectionalSearch(new HexWallGrid(1)).path(), new int[] {0});
+
+    HeadlessMaze rect = new HeadlessMaze(new RectUtils(), 200, 300, false, true, 31);
+    HeadlessMaze hex = new HeadlessMaze(new HexUtils(), 49, 25, false, false, 32);
+    boolean testHeadless = t.checkExpect(rect.solveBidirectional(), rect.solve())
+            && t.checkExpect(hex.solveBidirectional(), hex.solve());
+
+    //the tick mode wins with the same path findPath finds
+    HexMaze maze = new HexMaze(20, 10, false, false, 33);
+    maze.breakWalls(maze.wallsRemaining());
+    int ticks = 0;
+    while (!maze.won()) {
+      maze.bidirectionalTick();
+      ticks++;
+    }
+    int length = maze.treeIndex().distance(0, maze.walls.size() - 1) + 1;
+    maze.showSolutionPath();
+    boolean testPathShown = true;
+    for (int index : maze.treeIndex().path(0, maze.walls.size() - 1)) {
+      testPathShown = testPathShown && maze.tileAt(index).visiting();
+    }
+    RectMaze single = new RectMaze(1, 1, 10, false, false, 34);
+    single.bidirectionalTick();
+    return testSteps && testReset && testExhausted && testHeadless
+            && t.checkExpect(ticks, maze.expandedCount())
+            && t.checkExpect(ticks >= length / 2, true)
+            && t.checkExpect(testPathShown, true)
+            && t.checkExpect(single.won(), true);
+  }
+
+  //checks that the given walls form a spanning tree: every tile is reachable from the first,
+  //through exactly size - 1 open walls
+  boolean isSpanningTree(WallGrid walls) {
+    int openWalls = 0;
+    UnionFind reps = new UnionFind(walls.size());
+    //counts and unions every open wall, looking at each from the side that owns it
+    for (int i = 0; i < walls.size(); i++) {
+      for (int slot = 0; slot < walls.halfEdges(); slot++) {
+        int dir = walls.halfEdgeDirection(slot);
+        if (walls.canMove(i, dir)) {
+          openWalls++;
+          reps.union(i, walls.neighbor(i, dir));
+        }
+      }
+    }
+    boolean connected = true;
+    //checks that every tile ended up with the first one
+    for (int i = 0; i < walls.size(); i++) {
+      connected = connected && reps.sameSet(0, i);
+    }
+    return connected && openWalls == walls.size() - 1;
+  }
+
+  //checks that the given path runs from the first to the last tile of the given walls through
+  //open walls
+  boolean isSolution(WallGrid walls, int[] path) {
+    boolean valid = path[0] == 0 && path[path.length - 1] == walls.size() - 1;
+    //checks each step of the path
+    for (int i = 1; i < path.length; i++) {
+      boolean open = false;
+      for (int dir = 0; dir < walls.directions(); dir++) {
+        open = open || walls.canMove(path[i - 1], dir)
+                && walls.neighbor(path[i - 1], dir) == path[i];
+      }
+      valid = valid && open;
+    }
+    return valid;
+  }
+
+  boolean testKruskalBuilder(Tester t) {
+    WallGrid rect = new RectWallGrid(4, 3);
+    KruskalBuilder rectBuilder = new KruskalBuilder(rect);
+    WallGrid hex = new HexWallGrid(3);
+    KruskalBuilder hexBuilder = new KruskalBuilder(hex);
+
+    //a 4x3 grid has 3 * 3 horizontal and 4 * 2 vertical walls
+    long[] rectEdges = rectBuilder.getEdges(true, false);
+    boolean testEdges = t.checkExpect(rectEdges.length, 17)
+            && t.checkExpect(hexBuilder.getEdges(false, false).length, 42);
+    boolean testBias = true;
+    //vertical walls are biased towards lower weights
+    for (long edge : rectEdges) {
+      testBias = testBias && (PackedEdges.slot(edge) == 0
+              || PackedEdges.weight(edge) < PackedEdges.MAX_WEIGHT / 2);
+    }
+
+    long[] rectTree = rectBuilder.buildTree(false, true);
+    long[] hexTree = hexBuilder.buildTree(true, true);
+    boolean testTreeSize = t.checkExpect(rectTree.length, 11)
+            && t.checkExpect(hexTree.length, 18)
+            && t.checkExpect(new KruskalBuilder(new RectWallGrid(1, 1))
+            .buildTree(false, false).length, 0);
+
+    //the tree is in weight order and does not break anything by itself
+    boolean testTreeOrder = t.checkExpect(rect.accessibleNeighbors(0), new ArrayList<>());
+    for (int i = 1; i < rectTree.length; i++) {
+      testTreeOrder = testTreeOrder
+              && PackedEdges.weight(rectTree[i - 1]) <= PackedEdges.weight(rectTree[i]);
+    }
+
+    //breaking every wall of the tree leaves a perfect maze
+    for (long edge : rectTree) {
+      rect.breakPackedEdge(edge);
+    }
+    for (long edge : hexTree) {
+      hex.breakPackedEdge(edge);
+    }
+
+    return testEdges && t.checkExpect(testBias, true) && testTreeSize
+            && t.checkExpect(testTreeOrder, true)
+            && t.checkExpect(this.isSpanningTree(rect), true)
+            && t.checkExpect(this.isSpanningTree(hex), true);
+  }
+
+  boolean testParallelKruskalBuilder(Tester t) {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    WallGrid rect = new RectWallGrid(200, 150);
+    WallGrid hex = new HexWallGrid(40);
+    //a small threshold makes even these grids split and filter many times
+    KruskalBuilder rectBuilder = new ParallelKruskalBuilder(rect, pool, 512);
+    KruskalBuilder hexBuilder = new ParallelKruskalBuilder(hex, pool, 512);
+
+    //the same edges give exactly the tree of the sequential builder, in the same order
+    long[] edges = rectBuilder.getEdges(true, false);
+    long[] sequential = new KruskalBuilder(rect).buildTree(edges.clone());
+    boolean testSameTree = t.checkExpect(rectBuilder.buildTree(edges), sequential);
+
+    for (long edge : rectBuilder.buildTree(false, true)) {
+      rect.breakPackedEdge(edge);
+    }
+    for (long edge : hexBuilder.buildTree(false, false)) {
+      hex.breakPackedEdge(edge);
+    }
+    HeadlessMaze headless = new HeadlessMaze(
+            new ParallelKruskalBuilder(new HexWallGrid(60), pool), true, true);
+
+    boolean testTrees = t.checkExpect(this.isSpanningTree(rect), true)
+            && t.checkExpect(this.isSpanningTree(hex), true)
+            && t.checkExpect(this.isSpanningTree(headless.walls()), true)
+            && t.checkExpect(new ParallelKruskalBuilder(new RectWallGrid(1, 1), pool)
+            .buildTree(false, false).length, 0)
+            && t.checkConstructorException(new IllegalArgumentException(
+                    "Threshold must be positive"), "ParallelKruskalBuilder",
+            new RectWallGrid(2, 2), pool, 0);
+    pool.shutdown();
+    return testSameTree && testTrees;
+  }
+
+  boolean testTiledKruskalBuilder(Tester t) {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    WallGrid rect = new RectWallGrid(300, 200);
+    WallGrid hex = new HexWallGrid(50);
+    //bands of 1500 tiles hold 5 rows of the rectangle
+    TiledKruskalBuilder rectBuilder = new TiledKruskalBuilder(rect, pool, 1500);
+    TiledKruskalBuilder hexBuilder = new TiledKruskalBuilder(hex, pool, 700);
+
+    long[] rectTree = rectBuilder.buildTree(true, false);
+    boolean testTreeOrder = t.checkExpect(rectTree.length, 59999);
+    for (int i = 1; i < rectTree.length; i++) {
+      testTreeOrder = testTreeOrder
+              && PackedEdges.weight(rectTree[i - 1]) <= PackedEdges.weight(rectTree[i]);
+    }
+    for (long edge : rectTree) {
+      rect.breakPackedEdge(edge);
+    }
+    for (long edge : hexBuilder.buildTree(false, false)) {
+      hex.breakPackedEdge(edge);
+    }
+
+    int stitches = 0;
+    //counts the open walls between the first and second bands
+    for (int col = 0; col < 300; col++) {
+      if (rect.canMove(rect.indexOf(4, col), RectWallGrid.DOWN)) {
+        stitches++;
+      }
+    }
+
+    HeadlessMaze headless = new HeadlessMaze(new TiledKruskalBuilder(new RectWallGrid(3, 90),
+            pool, 10), false, true);
+    boolean testTrees = t.checkExpect(rectBuilder.rowsPerBand(), 5)
+            && t.checkExpect(stitches, 1)
+            && t.checkExpect(this.isSpanningTree(rect), true)
+            && t.checkExpect(this.isSpanningTree(hex), true)
+            && t.checkExpect(this.isSpanningTree(headless.walls()), true)
+            && t.checkExpect(new TiledKruskalBuilder(new HexWallGrid(1), pool)
+            .buildTree(false, false).length, 0)
+            && t.checkConstructorException(new IllegalArgumentException(
+                    "Band size must be positive"), "TiledKruskalBuilder",
+            new RectWallGrid(2, 2), pool, 0);
+    pool.shutdown();
+    return testTreeOrder && testTrees;
+  }
+
+  boolean testEllerGenerator(Tester t) {
+    RectWallGrid walls = new RectWallGrid(40, 300);
+    new EllerGenerator(40, 300).generate(new WallGridRowSink(walls));
+    RectWallGrid line = new RectWallGrid(7, 1);
+    new EllerGenerator(7, 1).generate(new WallGridRowSink(line));
+    RectWallGrid column = new RectWallGrid(1, 9);
+    new EllerGenerator(1, 9).generate(new WallGridRowSink(column));
+
+    StringBuilder text = new StringBuilder();
+    new EllerGenerator(2, 1).generate(new TextRowSink(text));
+    StringBuilder tall = new StringBuilder();
+    new EllerGenerator(1, 2).generate(new TextRowSink(tall));
+
+    return t.checkExpect(this.isSpanningTree(walls), true)
+            && t.checkExpect(this.isSpanningTree(line), true)
+            && t.checkExpect(this.isSpanningTree(column), true)
+            && t.checkExpect(text.toString(), "+--+--+\n|     |\n+--+--+\n")
+            && t.checkExpect(tall.toString(), "+--+\n|  |\n+  +\n|  |\n+--+\n")
+            && t.checkException(new IllegalArgumentException("Row does not fit the grid: 2"),
+            new WallGridRowSink(new RectWallGrid(2, 2)), "acceptRow", 2, new boolean[2],
+            new boolean[2])
+            && t.checkConstructorException(new IllegalArgumentException(
+                    "A maze needs at least one tile"), "EllerGenerator", 0, 5);
+  }
+
+  boolean testSeededGeneration(Tester t) {
+    ForkJoinPool pool = new ForkJoinPool(3);
+    //large enough to span several chunks of weights
+    WallGrid rect = new RectWallGrid(150, 100);
+    long[] sequential = new KruskalBuilder(rect, 7).getEdges(true, false);
+    boolean testEdges = t.checkExpect(new KruskalBuilder(rect, 7).getEdges(true, false),
+            sequential)
+            && t.checkExpect(new ParallelKruskalBuilder(rect, pool, 512, 7).getEdges(true, false),
+            sequential)
+            && t.checkExpect(new TiledKruskalBuilder(rect, pool, 800, 7).getEdges(true, false),
+            sequential)
+            && t.checkExpect(Arrays.equals(new KruskalBuilder(rect, 8).getEdges(true, false),
+            sequential), false)
+            && t.checkExpect(new KruskalBuilder(rect, 7).seed(), 7L);
+
+    //the same seed gives the same tree whichever builder or pool builds it
+    WallGrid hex = new HexWallGrid(45);
+    long[] tree = new KruskalBuilder(hex, -3).buildTree(false, true);
+    boolean testTrees = t.checkExpect(new ParallelKruskalBuilder(hex, pool, 300, -3)
+            .buildTree(false, true), tree)
+            && t.checkExpect(new ParallelKruskalBuilder(hex, ForkJoinPool.commonPool(), 300, -3)
+            .buildTree(false, true), tree)
+            && t.checkExpect(new TiledKruskalBuilder(hex, pool, 400, 11).buildTree(true, true),
+            new TiledKruskalBuilder(hex, new ForkJoinPool(1), 400, 11).buildTree(true, true));
+
+    StringBuilder text1 = new StringBuilder();
+    StringBuilder text2 = new StringBuilder();
+    EllerGenerator eller = new EllerGenerator(30, 20, 99);
+    eller.generate(new TextRowSink(text1));
+    eller.generate(new TextRowSink(text2));
+
+    boolean testMazes = t.checkExpect(text1.toString(), text2.toString())
+            && t.checkExpect(new HeadlessMaze(new RectUtils(), 40, 70, true, false, 5).walls(),
+            new HeadlessMaze(new RectUtils(), 40, 70, true, false, 5).walls())
+            && t.checkExpect(new RectMaze(12, 9, 10, false, false, 1),
+            new RectMaze(12, 9, 10, false, false, 1))
+            && t.checkExpect(new HexMaze(6, 10, true, false, 2),
+            new HexMaze(6, 10, true, false, 2));
+    Game game1 = new Game(new SplittableRandom(123));
+    Game game2 = new Game(new SplittableRandom(123));
+    boolean testGames = t.checkExpect(game1.makeScene(), game2.makeScene());
+    game1.onKeyEvent("n");
+    game2.onKeyEvent("n");
+    testGames = testGames && t.checkExpect(game1.makeScene(), game2.makeScene());
+    pool.shutdown();
+    return testEdges && testTrees && testMazes && testGames;
+  }
+
+  boolean testHeadlessMaze(Tester t) {
+    //well beyond the limits of RectMaze and HexMaze
+    HeadlessMaze rect = new HeadlessMaze(new RectUtils(), 300, 500, false, false);
+    HeadlessMaze hex = new HeadlessMaze(new HexUtils(), 79, 40, true, false);
+    HeadlessMaze single = new HeadlessMaze(new RectWallGrid(1, 1), false, false);
+
+    boolean testSizes = t.checkExpect(rect.walls().size(), 150000)
+            && t.checkExpect(rect.walls().rows(), 300)
+            && t.checkExpect(hex.walls().size(), 4681)
+            && t.checkExpect(hex.walls().rows(), 79);
+
+    boolean testTrees = t.checkExpect(this.isSpanningTree(rect.walls()), true)
+            && t.checkExpect(this.isSpanningTree(hex.walls()), true);
+
+    int[] rectPath = rect.solve();
+    int[] hexPath = hex.solve();
+
+    boolean testSolve = t.checkExpect(this.isSolution(rect.walls(), rectPath), true)
+            && t.checkExpect(this.isSolution(hex.walls(), hexPath), true)
+            && t.checkExpect(rectPath.length >= 500 + 300 - 1, true)
+            && t.checkExpect(single.solve(), new int[] {0});
+
+    return testSizes && testTrees && testSolve;
+  }
+
   boolean testTileUtils(Tester t) {
     TileUtils ru = new RectUtils();
     TileUtils hu = new HexUtils();
@@ -2261,15 +5695,29 @@ class ExamplesMazes {
             new IllegalArgumentException("currRow (10) out of bounds for sideLength (5)"),
             hu, "calculateWidth", 10, 5);
 
-    boolean testTileGen = t.checkExpect(ru.generateTile(), new RectTile())
-            && t.checkExpect(hu.generateTile(), new HexTile())
-            && t.checkExpect(ru.generateTile(Color.BLUE), new RectTile(Color.BLUE))
-            && t.checkExpect(ru.generateTile(new Color(1, 2, 3)), new RectTile(new Color(1, 2, 3)))
-            && t.checkExpect(hu.generateTile(Color.RED), new HexTile(Color.RED))
-            && t.checkExpect(hu.generateTile(new Color(110, 220, 233)),
-            new HexTile(new Color(110, 220, 233)));
-
-    return testRectWidth && testHexWidth && testTileGen;
+    WallGrid rectWalls = new RectWallGrid(4, 2);
+    WallGrid hexWalls = new HexWallGrid(3);
+    VisitState rectVisits = new VisitState(rectWalls.size());
+    VisitState hexVisits = new VisitState(hexWalls.size());
+
+    boolean testTileGen = t.checkExpect(
+            ru.generateTile(rectWalls, rectVisits, 2, ITile.TILE_COLOR),
+            new RectTile(rectWalls, rectVisits, 2, ITile.TILE_COLOR))
+            && t.checkExpect(hu.generateTile(hexWalls, hexVisits, 0, ITile.TILE_COLOR),
+            new HexTile(hexWalls, hexVisits, 0, ITile.TILE_COLOR))
+            && t.checkExpect(ru.generateTile(rectWalls, rectVisits, 1, Color.BLUE),
+            new RectTile(rectWalls, rectVisits, 1, Color.BLUE))
+            && t.checkExpect(ru.generateTile(rectWalls, rectVisits, 7, new Color(1, 2, 3)),
+            new RectTile(rectWalls, rectVisits, 7, new Color(1, 2, 3)))
+            && t.checkExpect(hu.generateTile(hexWalls, hexVisits, 4, Color.RED),
+            new HexTile(hexWalls, hexVisits, 4, Color.RED))
+            && t.checkExpect(hu.generateTile(hexWalls, hexVisits, 18, new Color(110, 220, 233)),
+            new HexTile(hexWalls, hexVisits, 18, new Color(110, 220, 233)));
+
+    boolean testWallGen = t.checkExpect(ru.generateWalls(2, 4), rectWalls)
+            && t.checkExpect(hu.generateWalls(5, 3), hexWalls);
+
+    return testRectWidth && testHexWidth && testTileGen && testWallGen;
   }
   
   boolean testGame(Tester t) {
@@ -2279,7 +5727,8 @@ class ExamplesMazes {
         && t.checkExpect(g1.checkField("tickMode", "construction"), true)
         && t.checkExpect(g1.checkField("showConstruction", true), true)
         && t.checkExpect(g1.checkField("vertBias", false), true)
-        && t.checkExpect(g1.checkField("horzBias", false), true);
+        && t.checkExpect(g1.checkField("horzBias", false), true)
+        && t.checkExpect(TickMode.BIDIRECTIONAL.label(), "bidirectional");
     
     g1.onKeyEvent(" ");
     
@@ -2416,9 +5865,27 @@ class ExamplesMazes {
         && t.checkExpect(g2.checkField("vertBias", false), true)
         && t.checkExpect(g2.checkField("horzBias", false), true);
     
+    //tiles of a 3x3 maze are 233 pixels, drawn from 116 pixels in
+    Game g3 = new Game(3, 3);
+    g3.onMouseClicked(new Posn(400, 400));
+    boolean clickWhileConstructing = t.checkExpect(g3.checkField("renderMode", "normal"), true);
+    g3.onKeyEvent("c");
+    g3.onTick();
+    g3.onMouseClicked(new Posn(10, 10));
+    boolean clickOutside = t.checkExpect(g3.checkField("renderMode", "normal"), true);
+    g3.onMouseClicked(new Posn(400, 400));
+    boolean clickTile = t.checkExpect(g3.checkField("renderMode", "tile heat map"), true);
+    g3.onKeyEvent("h");
+    boolean clickThenStartHeat = t.checkExpect(g3.checkField("renderMode", "start heat map"),
+            true);
+    g3.onKeyEvent("h");
+    boolean clickHeatOff = t.checkExpect(g3.checkField("renderMode", "normal"), true);
+
     return init && paused && keysWhilePausedConstructing && keysWhileUnpausedConstructing
         && finishedConstructing && keysWhileUnpausedNotConstructing && checkNewMaze
-        && checkConstructionTick && checkGameTick && g2Init && g2ConstructionFinished;
+        && checkConstructionTick && checkGameTick && g2Init && g2ConstructionFinished
+        && clickWhileConstructing && clickOutside && clickTile && clickThenStartHeat
+        && clickHeatOff;
   }
 
 }